@@ -0,0 +1,57 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.analytics.AggregationPlanner;
+import space.gavinklfong.demo.streamapi.analytics.AggregationPlanner.Plan;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * The grouping exercises grouped in memory against pushed down to the
+ * database, to place analytics.pushdown-threshold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class AggregationBenchmark {
+
+	@Param({ "IN_MEMORY", "PUSHDOWN" })
+	public Plan plan;
+
+	@Benchmark
+	public Map<Long, Long> orderCountByCustomer(SpringContextState state) {
+		return state.getBean(AggregationPlanner.class).orderCountByCustomer(plan);
+	}
+
+	@Benchmark
+	public Map<Long, Double> orderTotals(SpringContextState state) {
+		return state.getBean(AggregationPlanner.class).orderTotals(plan);
+	}
+
+	@Benchmark
+	public Map<String, List<String>> productNamesByCategory(SpringContextState state) {
+		return state.getBean(AggregationPlanner.class).productNamesByCategory(plan);
+	}
+
+	@Benchmark
+	public Map<String, Product> mostExpensiveProductByCategory(SpringContextState state) {
+		return state.getBean(AggregationPlanner.class).mostExpensiveProductByCategory(plan);
+	}
+
+}
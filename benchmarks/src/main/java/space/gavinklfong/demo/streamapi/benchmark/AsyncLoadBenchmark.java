@@ -0,0 +1,48 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.analytics.ColumnarSnapshot;
+import space.gavinklfong.demo.streamapi.analytics.ColumnarSnapshotLoader;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Loading customers, products and orders one after the other in a single
+ * transaction against loading them concurrently through the
+ * AsyncRepositoryFacade, as ColumnarSnapshotLoader does. The gain depends on
+ * the cores available to the loads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class AsyncLoadBenchmark {
+
+	@Benchmark
+	public ColumnarSnapshot sequentialLoad(SpringContextState state) {
+		CustomerRepo customerRepo = state.getBean(CustomerRepo.class);
+		ProductRepo productRepo = state.getBean(ProductRepo.class);
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> ColumnarSnapshot.of(
+				customerRepo.findAll(),
+				productRepo.findAll(),
+				orderRepo.findAllWithProducts()));
+	}
+
+	@Benchmark
+	public ColumnarSnapshot concurrentLoad(SpringContextState state) {
+		return state.getBean(ColumnarSnapshotLoader.class).load();
+	}
+
+}
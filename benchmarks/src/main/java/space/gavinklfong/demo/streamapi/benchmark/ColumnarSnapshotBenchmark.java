@@ -0,0 +1,72 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.DoubleSummaryStatistics;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The exercises answered from the columnar snapshot, compare with the
+ * methods of the same name in {@link ExerciseBenchmark}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ColumnarSnapshotBenchmark {
+
+	@Benchmark
+	public long[] exercise1(SnapshotState state) {
+		return state.snapshot.productsByCategoryAbovePrice("Books", 100);
+	}
+
+	@Benchmark
+	public long[] exercise2(SnapshotState state) {
+		return state.snapshot.ordersWithProductCategory("Baby");
+	}
+
+	@Benchmark
+	public long[] exercise4(SnapshotState state) {
+		return state.snapshot.productsOrderedByTierBetween(2, LocalDate.of(2021, 2, 1), LocalDate.of(2021, 4, 1));
+	}
+
+	@Benchmark
+	public long[] exercise6(SnapshotState state) {
+		return state.snapshot.mostRecentOrders(3);
+	}
+
+	@Benchmark
+	public double exercise8(SnapshotState state) {
+		return state.snapshot.totalPriceBetween(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28));
+	}
+
+	@Benchmark
+	public DoubleSummaryStatistics exercise10(SnapshotState state) {
+		return state.snapshot.priceStatistics("Books");
+	}
+
+	@Benchmark
+	public Map<Long, long[]> exercise12a(SnapshotState state) {
+		return state.snapshot.orderIdsByCustomer();
+	}
+
+	@Benchmark
+	public double[] exercise13(SnapshotState state) {
+		return state.snapshot.orderTotals();
+	}
+
+	@Benchmark
+	public Map<String, Long> exercise15(SnapshotState state) {
+		return state.snapshot.mostExpensiveProductByCategory();
+	}
+
+}
@@ -0,0 +1,95 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import space.gavinklfong.demo.streamapi.datagen.DataGenerator;
+import space.gavinklfong.demo.streamapi.datagen.RowSink;
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * In-memory Customer / Order / Product graph produced by {@link DataGenerator},
+ * scaled by the number of orders. The graph is fully wired (order -> products,
+ * order -> customer) so the exercise pipelines run without touching the database.
+ */
+public class Dataset {
+
+	private final List<Customer> customers;
+	private final List<Product> products;
+	private final List<Order> orders;
+
+	private Dataset(List<Customer> customers, List<Product> products, List<Order> orders) {
+		this.customers = customers;
+		this.products = products;
+		this.orders = orders;
+	}
+
+	public static Dataset generate(int orderCount, long seed) {
+		DataGenerator generator = DataGenerator.builder()
+				.seed(seed)
+				.orders(orderCount)
+				.build();
+
+		GraphSink sink = new GraphSink(generator);
+		generator.generate(sink);
+		return new Dataset(sink.customers, sink.products, sink.orders);
+	}
+
+	public List<Customer> getCustomers() {
+		return customers;
+	}
+
+	public List<Product> getProducts() {
+		return products;
+	}
+
+	public List<Order> getOrders() {
+		return orders;
+	}
+
+	private static class GraphSink implements RowSink {
+
+		private final List<Customer> customers;
+		private final List<Product> products;
+		private final List<Order> orders;
+
+		GraphSink(DataGenerator generator) {
+			customers = new ArrayList<>((int) generator.customerCount());
+			products = new ArrayList<>((int) generator.productCount());
+			orders = new ArrayList<>((int) generator.getOrders());
+		}
+
+		@Override
+		public void customer(long id, String name, int tier) {
+			customers.add(Customer.builder().id(id).name(name).tier(tier).build());
+		}
+
+		@Override
+		public void product(long id, String name, String category, double price) {
+			products.add(Product.builder().id(id).name(name).category(category).price(price).build());
+		}
+
+		@Override
+		public void order(long id, LocalDate orderDate, LocalDate deliveryDate, String status, long customerId) {
+			orders.add(Order.builder()
+					.id(id)
+					.orderDate(orderDate)
+					.deliveryDate(deliveryDate)
+					.status(status)
+					.customer(customers.get((int) customerId - 1))
+					.products(new HashSet<>())
+					.build());
+		}
+
+		@Override
+		public void orderProduct(long orderId, long productId) {
+			orders.get((int) orderId - 1).getProducts().add(products.get((int) productId - 1));
+		}
+
+	}
+
+}
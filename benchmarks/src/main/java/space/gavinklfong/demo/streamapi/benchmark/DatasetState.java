@@ -0,0 +1,26 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+public class DatasetState {
+
+	// 10M orders need more than the 4 GB heap of the forks, opt in with -p orders=10000000
+	@Param({ "10000", "100000", "1000000" })
+	public int orders;
+
+	@Param("42")
+	public long seed;
+
+	public Dataset dataset;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dataset = Dataset.generate(orders, seed);
+	}
+
+}
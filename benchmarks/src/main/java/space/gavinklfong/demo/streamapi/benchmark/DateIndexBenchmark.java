@@ -0,0 +1,141 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.analytics.DateIndex;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Scanning all orders for a date window against looking the window up in a
+ * {@link DateIndex}, for exercise 4 (tier 2, Feb to Apr), exercise 7 and 9
+ * (15-Mar) and exercise 8 (February).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class DateIndexBenchmark {
+
+	private static final LocalDate FEB_1 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate FEB_28 = LocalDate.of(2021, 2, 28);
+	private static final LocalDate MAR_1 = LocalDate.of(2021, 3, 1);
+	private static final LocalDate MAR_15 = LocalDate.of(2021, 3, 15);
+	private static final LocalDate APR_1 = LocalDate.of(2021, 4, 1);
+
+	@State(Scope.Benchmark)
+	public static class DateIndexState {
+
+		@Param({ "100000", "1000000" })
+		public int orders;
+
+		public Dataset dataset;
+
+		public DateIndex<Order> index;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			dataset = Dataset.generate(orders, 42);
+			index = DateIndex.of(dataset.getOrders(), Order::getOrderDate);
+		}
+
+	}
+
+	@Benchmark
+	public List<Product> exercise4Scan(DateIndexState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> o.getOrderDate().compareTo(FEB_1) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(APR_1) <= 0)
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise4Index(DateIndexState state) {
+		return state.index.between(FEB_1, APR_1)
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise7Scan(DateIndexState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(MAR_15))
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise7Index(DateIndexState state) {
+		return state.index.on(MAR_15)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public double exercise8Scan(DateIndexState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(FEB_1) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(MAR_1) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+	}
+
+	@Benchmark
+	public double exercise8Index(DateIndexState state) {
+		return state.index.between(FEB_1, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+	}
+
+	@Benchmark
+	public double exercise9Scan(DateIndexState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(MAR_15))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.average().orElse(0);
+	}
+
+	@Benchmark
+	public double exercise9Index(DateIndexState state) {
+		return state.index.on(MAR_15)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.average().orElse(0);
+	}
+
+}
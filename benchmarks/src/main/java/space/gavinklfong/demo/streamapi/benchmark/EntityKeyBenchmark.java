@@ -0,0 +1,69 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * The exercises that use entities as hash keys, next to the same grouping
+ * keyed by the id, which is the lower bound for the entity keys.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class EntityKeyBenchmark {
+
+	@Benchmark
+	public Map<Customer, List<Order>> exercise12ByCustomer(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.groupingBy(Order::getCustomer));
+	}
+
+	@Benchmark
+	public Map<Long, List<Order>> exercise12ByCustomerId(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.groupingBy(o -> o.getCustomer().getId()));
+	}
+
+	@Benchmark
+	public Map<Order, Integer> exercise13ByOrder(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.toMap(Function.identity(), o -> o.getProducts().size()));
+	}
+
+	@Benchmark
+	public Map<Long, Integer> exercise13ByOrderId(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.toMap(Order::getId, o -> o.getProducts().size()));
+	}
+
+	@Benchmark
+	public List<Product> exercise7Distinct(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,263 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * The StreamApiTest exercises, run against an in-memory dataset so that only
+ * the pipeline cost is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ExerciseBenchmark {
+
+	@Benchmark
+	public List<Product> exercise1(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.filter(p -> p.getPrice() > 100)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise1a(DatasetState state) {
+		Predicate<Product> categoryFilter = product -> product.getCategory().equalsIgnoreCase("Books");
+		Predicate<Product> priceFilter = product -> product.getPrice() > 100;
+
+		return state.dataset.getProducts()
+				.stream()
+				.filter(product -> categoryFilter.and(priceFilter).test(product))
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise1b(DatasetState state) {
+		BiPredicate<Product, String> categoryFilter = (product, category) -> product.getCategory().equalsIgnoreCase(category);
+
+		return state.dataset.getProducts()
+				.stream()
+				.filter(product -> categoryFilter.test(product, "Books") && product.getPrice() > 100)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Order> exercise2(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o ->
+					o.getProducts()
+					.stream()
+					.anyMatch(p -> p.getCategory().equalsIgnoreCase("Baby"))
+				)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise3(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Toys"))
+				.map(p -> p.withPrice(p.getPrice() * 0.9))
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise4(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 2, 1)) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 4, 1)) <= 0)
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public Optional<Product> exercise5(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.min(Comparator.comparing(Product::getPrice));
+	}
+
+	@Benchmark
+	public List<Order> exercise6(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.sorted(Comparator.comparing(Order::getOrderDate).reversed())
+				.limit(3)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise7(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(LocalDate.of(2021, 3, 15)))
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public double exercise8(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 2, 1)) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 3, 1)) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+	}
+
+	@Benchmark
+	public double exercise8a(DatasetState state) {
+		BiFunction<Double, Product, Double> accumulator = (acc, product) -> acc + product.getPrice();
+
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 2, 1)) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(LocalDate.of(2021, 3, 1)) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.reduce(0D, accumulator, Double::sum);
+	}
+
+	@Benchmark
+	public double exercise9(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(LocalDate.of(2021, 3, 15)))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.average().orElse(0);
+	}
+
+	@Benchmark
+	public DoubleSummaryStatistics exercise10(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.mapToDouble(Product::getPrice)
+				.summaryStatistics();
+	}
+
+	@Benchmark
+	public Map<Long, Integer> exercise11(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(
+						Collectors.toMap(
+								Order::getId,
+								order -> order.getProducts().size())
+						);
+	}
+
+	@Benchmark
+	public Map<Customer, List<Order>> exercise12(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.groupingBy(Order::getCustomer));
+	}
+
+	@Benchmark
+	public HashMap<Long, List<Long>> exercise12a(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								order -> order.getCustomer().getId(),
+								HashMap::new,
+								Collectors.mapping(Order::getId, Collectors.toList())));
+	}
+
+	@Benchmark
+	public Map<Order, Double> exercise13(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(
+					Collectors.toMap(
+							Function.identity(),
+							order -> order.getProducts().stream()
+										.mapToDouble(Product::getPrice).sum())
+					);
+	}
+
+	@Benchmark
+	public Map<Long, Double> exercise13a(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(
+						Collectors.toMap(
+								Order::getId,
+								order -> order.getProducts().stream()
+										.reduce(0D, (acc, product) -> acc + product.getPrice(), Double::sum)
+						));
+	}
+
+	@Benchmark
+	public Map<String, List<String>> exercise14(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								Product::getCategory,
+								Collectors.mapping(Product::getName, Collectors.toList()))
+						);
+	}
+
+	@Benchmark
+	public Map<String, Optional<Product>> exercise15(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								Product::getCategory,
+								Collectors.maxBy(Comparator.comparing(Product::getPrice)))
+						);
+	}
+
+	@Benchmark
+	public Map<String, String> exercise15a(DatasetState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								Product::getCategory,
+								Collectors.collectingAndThen(
+										Collectors.maxBy(Comparator.comparingDouble(Product::getPrice)),
+										optionalProduct -> optionalProduct
+												.map(Product::getName)
+												.orElse(null)
+								)
+						));
+	}
+
+}
@@ -0,0 +1,117 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.collectors.MoneyCollectors;
+import space.gavinklfong.demo.streamapi.collectors.PrimitiveCollectors;
+import space.gavinklfong.demo.streamapi.models.Money;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Revenue over all ordered products and the exercise 3 discount computed
+ * with {@code double}, {@code BigDecimal} and {@link Money} cents. The
+ * BigDecimal prices are prepared up front, as if they were mapped from the
+ * column, so only the arithmetic is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class MoneyBenchmark {
+
+	private static final BigDecimal NINETY_PERCENT = new BigDecimal("0.90");
+
+	@State(Scope.Benchmark)
+	public static class MoneyState {
+
+		@Param({ "100000", "1000000" })
+		public int orders;
+
+		public Dataset dataset;
+
+		// indexed by product id
+		public BigDecimal[] decimalPrices;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			dataset = Dataset.generate(orders, 42);
+			int maxId = dataset.getProducts().stream().mapToInt(p -> p.getId().intValue()).max().orElse(0);
+			decimalPrices = new BigDecimal[maxId + 1];
+			dataset.getProducts().forEach(p -> decimalPrices[p.getId().intValue()] = BigDecimal.valueOf(p.getPrice()));
+		}
+
+	}
+
+	@Benchmark
+	public double revenueDouble(MoneyState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.collect(PrimitiveCollectors.summingDouble(Product::getPrice));
+	}
+
+	@Benchmark
+	public BigDecimal revenueBigDecimal(MoneyState state) {
+		BigDecimal[] prices = state.decimalPrices;
+		return state.dataset.getOrders()
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.map(p -> prices[p.getId().intValue()])
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+
+	@Benchmark
+	public Money revenueMoney(MoneyState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.collect(MoneyCollectors.summing(Product::getPriceInCents));
+	}
+
+	@Benchmark
+	public List<Double> exercise3Double(MoneyState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Toys"))
+				.map(p -> p.getPrice() * 0.9)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<BigDecimal> exercise3BigDecimal(MoneyState state) {
+		BigDecimal[] prices = state.decimalPrices;
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Toys"))
+				.map(p -> prices[p.getId().intValue()].multiply(NINETY_PERCENT).setScale(Money.SCALE, RoundingMode.HALF_EVEN))
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Money> exercise3Money(MoneyState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Toys"))
+				.map(p -> p.getPriceAsMoney().percentOff(10))
+				.collect(Collectors.toList());
+	}
+
+}
@@ -0,0 +1,125 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.DemoApplication;
+import space.gavinklfong.demo.streamapi.datagen.DataGenerator;
+import space.gavinklfong.demo.streamapi.datagen.JdbcBatchSink;
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+
+/**
+ * Orders inserted per second through the repository, {@code saveAll} against
+ * the batched {@code insertAll}, with JDBC batching off (batch size 1) and on.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@OperationsPerInvocation(OrderIngestionBenchmark.ORDERS)
+public class OrderIngestionBenchmark {
+
+	static final int ORDERS = 1000;
+
+	@State(Scope.Benchmark)
+	public static class IngestionState {
+
+		@Param({ "1", "50" })
+		public int batchSize;
+
+		public ConfigurableApplicationContext context;
+
+		public OrderRepo orderRepo;
+
+		public TransactionTemplate transaction;
+
+		private DataGenerator generator;
+
+		private Random random;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			SpringApplication application = new SpringApplication(DemoApplication.class);
+			application.setWebApplicationType(WebApplicationType.NONE);
+			context = application.run(
+					"--spring.datasource.initialization-mode=never",
+					"--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+					"--logging.level.root=WARN");
+
+			generator = DataGenerator.builder().orders(10000).build();
+			try (JdbcBatchSink sink = new JdbcBatchSink(context.getBean(DataSource.class), 1000)) {
+				generator.generate(sink);
+			}
+			orderRepo = context.getBean(OrderRepo.class);
+			transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+			random = new Random(42);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			context.close();
+		}
+
+		// new orders referencing saved customers and products by id, three products each
+		public List<Order> newOrders() {
+			List<Order> orders = new ArrayList<>(ORDERS);
+			for (int i = 0; i < ORDERS; i++) {
+				Set<Product> products = new HashSet<>();
+				while (products.size() < 3) {
+					products.add(Product.builder().id(1L + random.nextInt((int) generator.productCount())).build());
+				}
+				orders.add(Order.builder()
+						.orderDate(LocalDate.of(2021, 1, 1).plusDays(random.nextInt(365)))
+						.status("NEW")
+						.customer(Customer.builder().id(1L + random.nextInt((int) generator.customerCount())).build())
+						.products(products)
+						.build());
+			}
+			return orders;
+		}
+
+	}
+
+	@Benchmark
+	public Iterable<Order> saveAll(IngestionState state) {
+		List<Order> orders = state.newOrders();
+		return state.transaction.execute(tx -> state.orderRepo.saveAll(orders));
+	}
+
+	@Benchmark
+	public int insertAll(IngestionState state) {
+		return state.orderRepo.insertAll(state.newOrders());
+	}
+
+}
@@ -0,0 +1,107 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.analytics.ParallelQueryExecutor;
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Sequential pipelines against the same pipelines on the analytics pool,
+ * over small to large inputs to find where parallelism starts to pay off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ParallelCrossoverBenchmark {
+
+	@State(Scope.Benchmark)
+	public static class CrossoverState {
+
+		@Param({ "1000", "10000", "100000", "1000000" })
+		public int orders;
+
+		@Param("0")
+		public int parallelism;
+
+		public Dataset dataset;
+
+		public ParallelQueryExecutor executor;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			dataset = Dataset.generate(orders, 42);
+			executor = new ParallelQueryExecutor(parallelism);
+		}
+
+		@TearDown(Level.Trial)
+		public void tearDown() {
+			executor.shutdown();
+		}
+
+	}
+
+	@Benchmark
+	public Map<Customer, List<Order>> ordersByCustomerSequential(CrossoverState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.groupingBy(Order::getCustomer));
+	}
+
+	@Benchmark
+	public Map<Customer, List<Order>> ordersByCustomerParallel(CrossoverState state) {
+		return state.executor.ordersByCustomer(state.dataset.getOrders());
+	}
+
+	@Benchmark
+	public Map<Long, Double> orderTotalsSequential(CrossoverState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.toMap(
+						Order::getId,
+						order -> order.getProducts().stream()
+								.mapToDouble(Product::getPrice).sum()));
+	}
+
+	@Benchmark
+	public Map<Long, Double> orderTotalsParallel(CrossoverState state) {
+		return state.executor.orderTotals(state.dataset.getOrders());
+	}
+
+	@Benchmark
+	public Map<String, Optional<Product>> mostExpensiveProductByCategorySequential(CrossoverState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.collect(Collectors.groupingBy(
+						Product::getCategory,
+						Collectors.maxBy(Comparator.comparing(Product::getPrice))));
+	}
+
+	@Benchmark
+	public Map<String, Optional<Product>> mostExpensiveProductByCategoryParallel(CrossoverState state) {
+		return state.executor.mostExpensiveProductByCategory(state.dataset.getProducts());
+	}
+
+}
@@ -0,0 +1,102 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.collectors.LongDoubleHashMap;
+import space.gavinklfong.demo.streamapi.collectors.LongListHashMap;
+import space.gavinklfong.demo.streamapi.collectors.PrimitiveCollectors;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Boxed collectors of the exercises against {@link PrimitiveCollectors}.
+ * Run with {@code -prof gc} to compare the allocation rate per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class PrimitiveCollectorsBenchmark {
+
+	private static final LocalDate FEB_01 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate MAR_01 = LocalDate.of(2021, 3, 1);
+
+	@Benchmark
+	public double exercise8Boxed(DatasetState state) {
+		BiFunction<Double, Product, Double> accumulator = (acc, product) -> acc + product.getPrice();
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(MAR_01) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.reduce(0D, accumulator, Double::sum);
+	}
+
+	@Benchmark
+	public double exercise8Primitive(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(MAR_01) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.collect(PrimitiveCollectors.summingDouble(Product::getPrice));
+	}
+
+	@Benchmark
+	public Map<Long, List<Long>> exercise12aBoxed(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.groupingBy(
+						order -> order.getCustomer().getId(),
+						HashMap::new,
+						Collectors.mapping(Order::getId, Collectors.toList())));
+	}
+
+	@Benchmark
+	public LongListHashMap exercise12aPrimitive(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(PrimitiveCollectors.groupingByLong(order -> order.getCustomer().getId(), Order::getId));
+	}
+
+	@Benchmark
+	public Map<Long, Double> exercise13aBoxed(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(Collectors.toMap(
+						Order::getId,
+						order -> order.getProducts().stream()
+								.reduce(0D, (acc, product) -> acc + product.getPrice(), Double::sum)));
+	}
+
+	@Benchmark
+	public LongDoubleHashMap exercise13aPrimitive(DatasetState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(PrimitiveCollectors.groupingBySum(Order::getId, PrimitiveCollectorsBenchmark::total));
+	}
+
+	private static double total(Order order) {
+		double total = 0;
+		for (Product product : order.getProducts()) {
+			total += product.getPrice();
+		}
+		return total;
+	}
+
+}
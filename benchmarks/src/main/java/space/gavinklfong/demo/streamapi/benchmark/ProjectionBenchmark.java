@@ -0,0 +1,97 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.CustomerOrderId;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderTotal;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductSummary;
+
+/**
+ * Exercises 12a, 13a and 14 from hydrated entities against the projection
+ * queries. Run with {@code -prof gc} for the bytes allocated per operation
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ProjectionBenchmark {
+
+	// exercise 12a, customer id to order ids
+
+	@Benchmark
+	public Map<Long, List<Long>> customerOrderIdsFromEntities(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.collect(Collectors.groupingBy(o -> o.getCustomer().getId(),
+						Collectors.mapping(Order::getId, Collectors.toList()))));
+	}
+
+	@Benchmark
+	public Map<Long, List<Long>> customerOrderIdsFromProjection(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAllCustomerOrderIds()
+				.stream()
+				.collect(Collectors.groupingBy(CustomerOrderId::getCustomerId,
+						Collectors.mapping(CustomerOrderId::getOrderId, Collectors.toList()))));
+	}
+
+	// exercise 13a, order id to order total
+
+	@Benchmark
+	public Map<Long, Double> orderTotalsFromEntities(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAllWithProducts()
+				.stream()
+				.collect(Collectors.toMap(Order::getId, o -> o.getProducts()
+						.stream()
+						.mapToDouble(Product::getPrice)
+						.sum())));
+	}
+
+	@Benchmark
+	public Map<Long, Double> orderTotalsFromProjection(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAllOrderTotals()
+				.stream()
+				.collect(Collectors.toMap(OrderTotal::getOrderId, OrderTotal::getTotal)));
+	}
+
+	// exercise 14, product names by category, findAll() is served from the query and second-level caches
+
+	@Benchmark
+	public Map<String, List<String>> productNamesFromEntities(SpringContextState state) {
+		ProductRepo productRepo = state.getBean(ProductRepo.class);
+		return state.readOnlyTransaction.execute(tx -> productRepo.findAll()
+				.stream()
+				.collect(Collectors.groupingBy(Product::getCategory,
+						Collectors.mapping(Product::getName, Collectors.toList()))));
+	}
+
+	@Benchmark
+	public Map<String, List<String>> productNamesFromProjection(SpringContextState state) {
+		ProductRepo productRepo = state.getBean(ProductRepo.class);
+		return state.readOnlyTransaction.execute(tx -> productRepo.findAllProjectedBy()
+				.stream()
+				.collect(Collectors.groupingBy(ProductSummary::getCategory,
+						Collectors.mapping(ProductSummary::getName, Collectors.toList()))));
+	}
+
+}
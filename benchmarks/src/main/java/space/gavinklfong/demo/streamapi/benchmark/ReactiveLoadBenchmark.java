@@ -0,0 +1,75 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import reactor.core.publisher.Flux;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.reactive.ReactiveAnalytics;
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
+
+/**
+ * A burst of concurrent requests, each the total price of the orders of one
+ * day (exercise 8 over a day), through the blocking path (the JPA repository
+ * on the AsyncRepositoryFacade threads) against the reactive path (R2DBC
+ * with Reactor operators). Reports the time to serve the whole burst.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class ReactiveLoadBenchmark {
+
+	private static final LocalDate FIRST_DAY = LocalDate.of(2021, 2, 1);
+	private static final int DAYS = 59;
+
+	@Param({ "16", "256" })
+	public int requests;
+
+	@Benchmark
+	public double blocking(SpringContextState state) {
+		AsyncRepositoryFacade repos = state.getBean(AsyncRepositoryFacade.class);
+		List<CompletableFuture<Double>> totals = new ArrayList<>(requests);
+		for (int i = 0; i < requests; i++) {
+			LocalDate day = FIRST_DAY.plusDays(i % DAYS);
+			totals.add(repos.orders(repo -> repo.findByOrderDateBetweenWithCustomerAndProducts(day, day)
+					.stream()
+					.flatMap(o -> o.getProducts().stream())
+					.mapToDouble(Product::getPrice)
+					.sum()));
+		}
+		double sum = 0;
+		for (CompletableFuture<Double> total : totals) {
+			sum += AsyncRepositoryFacade.await(total);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public double reactive(SpringContextState state) {
+		ReactiveAnalytics analytics = state.getBean(ReactiveAnalytics.class);
+		return Flux.range(0, requests)
+				.map(i -> FIRST_DAY.plusDays(i % DAYS))
+				.flatMap(day -> analytics.totalPriceBetween(day, day), requests)
+				.reduce(0D, Double::sum)
+				.block();
+	}
+
+}
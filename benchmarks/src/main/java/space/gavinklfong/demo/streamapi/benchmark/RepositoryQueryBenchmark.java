@@ -0,0 +1,177 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+
+import space.gavinklfong.demo.streamapi.collectors.TopK;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Filtering in Java after {@code findAll()} against the same predicate pushed
+ * down into the repository query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class RepositoryQueryBenchmark {
+
+	private static final LocalDate FEB_01 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate FEB_28 = LocalDate.of(2021, 2, 28);
+	private static final LocalDate MAR_01 = LocalDate.of(2021, 3, 1);
+	private static final LocalDate MAR_15 = LocalDate.of(2021, 3, 15);
+	private static final LocalDate APR_01 = LocalDate.of(2021, 4, 1);
+
+	@Benchmark
+	public List<Product> exercise1Stream(SpringContextState state) {
+		ProductRepo productRepo = state.getBean(ProductRepo.class);
+		return state.readOnlyTransaction.execute(tx -> productRepo.findAll()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.filter(p -> p.getPrice() > 100)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Product> exercise1Query(SpringContextState state) {
+		ProductRepo productRepo = state.getBean(ProductRepo.class);
+		return state.readOnlyTransaction.execute(tx ->
+				productRepo.findByCategoryAndPriceGreaterThan("Books", 100D));
+	}
+
+	@Benchmark
+	public List<Long> exercise2FindAll(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> exercise2(orderRepo.findAll()));
+	}
+
+	@Benchmark
+	public List<Long> exercise2FetchPlan(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> exercise2(orderRepo.findAllWithProducts()));
+	}
+
+	@Benchmark
+	public List<Long> exercise4Stream(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(APR_01) <= 0)
+				.map(Order::getId)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Long> exercise4Query(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findByCustomerTierAndOrderDateBetween(2, FEB_01, APR_01)
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Order> exercise6Sorted(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.sorted(Comparator.comparing(Order::getOrderDate).reversed())
+				.limit(3)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Order> exercise6TopK(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.collect(TopK.greatest(3, Comparator.comparing(Order::getOrderDate))));
+	}
+
+	@Benchmark
+	public List<Order> exercise6Query(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx ->
+				orderRepo.findByOrderByOrderDateDescIdAsc(PageRequest.of(0, 3)));
+	}
+
+	@Benchmark
+	public List<Long> exercise7Stream(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(MAR_15))
+				.map(Order::getId)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Long> exercise7Query(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findByOrderDate(MAR_15)
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public Double exercise8Stream(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(MAR_01) < 0)
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum());
+	}
+
+	@Benchmark
+	public Double exercise8Query(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findByOrderDateBetween(FEB_01, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum());
+	}
+
+	@Benchmark
+	public Double exercise8FetchPlan(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findByOrderDateBetweenWithCustomerAndProducts(FEB_01, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum());
+	}
+
+	private static List<Long> exercise2(List<Order> orders) {
+		return orders
+				.stream()
+				.filter(o -> o.getProducts()
+						.stream()
+						.anyMatch(p -> p.getCategory().equalsIgnoreCase("Baby")))
+				.map(Order::getId)
+				.collect(Collectors.toList());
+	}
+
+}
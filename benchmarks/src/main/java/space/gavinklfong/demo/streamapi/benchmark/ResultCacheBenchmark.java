@@ -0,0 +1,62 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.analytics.AnalyticsQueries;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+
+/**
+ * Exercise 4 asked over and over: findAll() and a stream each time, the
+ * filtered fetch plan query each time, and the cached answer.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ResultCacheBenchmark {
+
+	private static final LocalDate FROM = LocalDate.of(2021, 2, 1);
+	private static final LocalDate TO = LocalDate.of(2021, 4, 1);
+
+	@Benchmark
+	public List<Product> findAllAndStream(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo.findAllWithProducts()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> !o.getOrderDate().isBefore(FROM) && !o.getOrderDate().isAfter(TO))
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Product> filteredQuery(SpringContextState state) {
+		OrderRepo orderRepo = state.getBean(OrderRepo.class);
+		return state.readOnlyTransaction.execute(tx -> orderRepo
+				.findByCustomerTierAndOrderDateBetweenWithProducts(2, FROM, TO)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList()));
+	}
+
+	@Benchmark
+	public List<Product> cached(SpringContextState state) {
+		return state.getBean(AnalyticsQueries.class).productsOrderedByTier(2, FROM, TO);
+	}
+
+}
@@ -0,0 +1,76 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.metrics.RowCountingDataSource;
+
+/**
+ * Overhead of counting the rows read: the orders table scanned over JDBC
+ * from the pooled data source, and from the same data source wrapped in a
+ * {@link RowCountingDataSource}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class RowCountingBenchmark {
+
+	private static final String SQL = "select id, order_date, customer_id from product_order";
+
+	@State(Scope.Benchmark)
+	public static class DataSources {
+
+		DataSource plain;
+
+		DataSource counting;
+
+		@Setup(Level.Trial)
+		public void setUp(SpringContextState state) {
+			plain = state.getBean(DataSource.class);
+			counting = new RowCountingDataSource(plain);
+		}
+
+	}
+
+	@Benchmark
+	public long plain(DataSources dataSources) throws SQLException {
+		return scan(dataSources.plain);
+	}
+
+	@Benchmark
+	public long counting(DataSources dataSources) throws SQLException {
+		return scan(dataSources.counting);
+	}
+
+	private static long scan(DataSource dataSource) throws SQLException {
+		long sum = 0;
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement(SQL);
+				ResultSet rows = statement.executeQuery()) {
+			while (rows.next()) {
+				sum += rows.getLong(1) + rows.getDate(2).getTime() + rows.getLong(3);
+			}
+		}
+		return sum;
+	}
+
+}
@@ -0,0 +1,21 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import space.gavinklfong.demo.streamapi.analytics.ColumnarSnapshot;
+
+@State(Scope.Benchmark)
+public class SnapshotState {
+
+	public ColumnarSnapshot snapshot;
+
+	@Setup(Level.Trial)
+	public void setUp(DatasetState state) {
+		Dataset dataset = state.dataset;
+		snapshot = ColumnarSnapshot.of(dataset.getCustomers(), dataset.getProducts(), dataset.getOrders());
+	}
+
+}
@@ -0,0 +1,79 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.hibernate.SessionFactory;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.DemoApplication;
+import space.gavinklfong.demo.streamapi.datagen.DataGenerator;
+import space.gavinklfong.demo.streamapi.datagen.JdbcBatchSink;
+
+/**
+ * Boots the application against an empty H2 database and loads it with
+ * generated data, for benchmarks that go through the repositories. The
+ * repository metrics are turned off, {@link RowCountingBenchmark} measures
+ * what they cost, and the reactive read path is turned on for
+ * {@link ReactiveLoadBenchmark}.
+ */
+@State(Scope.Benchmark)
+public class SpringContextState {
+
+	@Param({ "10000", "100000" })
+	public int orders;
+
+	@Param("42")
+	public long seed;
+
+	public ConfigurableApplicationContext context;
+
+	public TransactionTemplate readOnlyTransaction;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SpringApplication application = new SpringApplication(DemoApplication.class);
+		application.setWebApplicationType(WebApplicationType.NONE);
+		context = application.run(
+				"--spring.datasource.initialization-mode=never",
+				"--analytics.metrics.enabled=false",
+				"--reactive.enabled=true",
+				"--logging.level.root=WARN");
+
+		DataGenerator generator = DataGenerator.builder()
+				.seed(seed)
+				.orders(orders)
+				.build();
+		try (JdbcBatchSink sink = new JdbcBatchSink(context.getBean(DataSource.class), 1000)) {
+			generator.generate(sink);
+		}
+		// the rows were written behind Hibernate's back, drop what was cached at startup
+		EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+		entityManagerFactory.getCache().evictAll();
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+
+		readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		readOnlyTransaction.setReadOnly(true);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	public <T> T getBean(Class<T> type) {
+		return context.getBean(type);
+	}
+
+}
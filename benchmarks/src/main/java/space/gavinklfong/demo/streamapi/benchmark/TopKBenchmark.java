@@ -0,0 +1,92 @@
+package space.gavinklfong.demo.streamapi.benchmark;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import space.gavinklfong.demo.streamapi.collectors.TopK;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Sort-then-limit against the bounded-heap {@link TopK} collectors for
+ * exercise 5 (cheapest books) and exercise 6 (most recent orders).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class TopKBenchmark {
+
+	private static final Comparator<Order> BY_ORDER_DATE = Comparator.comparing(Order::getOrderDate);
+
+	private static final Comparator<Product> BY_PRICE = Comparator.comparing(Product::getPrice);
+
+	@State(Scope.Benchmark)
+	public static class TopKState {
+
+		@Param({ "1000000", "5000000" })
+		public int orders;
+
+		@Param({ "3", "100" })
+		public int limit;
+
+		public Dataset dataset;
+
+		@Setup(Level.Trial)
+		public void setUp() {
+			dataset = Dataset.generate(orders, 42);
+		}
+
+	}
+
+	@Benchmark
+	public List<Order> exercise6Sorted(TopKState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.sorted(BY_ORDER_DATE.reversed())
+				.limit(state.limit)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Order> exercise6TopK(TopKState state) {
+		return state.dataset.getOrders()
+				.stream()
+				.collect(TopK.greatest(state.limit, BY_ORDER_DATE));
+	}
+
+	@Benchmark
+	public List<Product> exercise5Sorted(TopKState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.sorted(BY_PRICE)
+				.limit(state.limit)
+				.collect(Collectors.toList());
+	}
+
+	@Benchmark
+	public List<Product> exercise5TopK(TopKState state) {
+		return state.dataset.getProducts()
+				.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.collect(TopK.least(state.limit, BY_PRICE));
+	}
+
+}
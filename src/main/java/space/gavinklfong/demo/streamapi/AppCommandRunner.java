@@ -1,42 +1,74 @@
 package space.gavinklfong.demo.streamapi;
 
+import static space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade.await;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
-import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
-import space.gavinklfong.demo.streamapi.repos.OrderRepo;
-import space.gavinklfong.demo.streamapi.repos.ProductRepo;
-
-import javax.transaction.Transactional;
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
 
+/**
+ * Startup report of the data, enabled with {@code startup.report.enabled=true}:
+ * the row count of each table, the first {@code startup.report.samples} rows
+ * and the time taken. Only the sampled rows are loaded.
+ */
 @Slf4j
 @Component
+@ConditionalOnProperty(name = "startup.report.enabled", havingValue = "true")
 public class AppCommandRunner implements CommandLineRunner {
 
 	@Autowired
-	private CustomerRepo customerRepos;
-	
-	@Autowired
-	private OrderRepo orderRepos;
-	
-	@Autowired
-	private ProductRepo productRepos;
+	private AsyncRepositoryFacade repos;
+
+	@Value("${startup.report.samples:3}")
+	private int samples;
 
-	@Transactional
 	@Override
 	public void run(String... args) throws Exception {
-		log.info("Customers:");
-		customerRepos.findAll()
-				.forEach(c -> log.info(c.toString()));
+		report().forEach(log::info);
+	}
+
+	/** The three sections are loaded concurrently, each in a transaction of its own. */
+	public List<String> report() {
+		long startTime = System.currentTimeMillis();
+		Pageable firstRows = PageRequest.of(0, Math.max(samples, 1), Sort.by("id"));
+
+		CompletableFuture<List<String>> customers = repos.customers(
+				repo -> section("Customers", repo.count(), () -> repo.findAllBy(firstRows)));
+		CompletableFuture<List<String>> orders = repos.orders(
+				repo -> section("Orders", repo.count(), () -> repo.findAllBy(firstRows)));
+		CompletableFuture<List<String>> products = repos.products(
+				repo -> section("Products", repo.count(), () -> repo.findAllBy(firstRows)));
 
-		log.info("Orders:");
-		orderRepos.findAll()
-				.forEach(o -> log.info(o.toString()));
+		List<String> lines = new ArrayList<>();
+		lines.addAll(await(customers));
+		lines.addAll(await(orders));
+		lines.addAll(await(products));
+
+		long endTime = System.currentTimeMillis();
+		lines.add(String.format("startup report built in %1$d ms", (endTime - startTime)));
+		return lines;
+	}
 
-		log.info("Products:");
-		productRepos.findAll()
-				.forEach(p -> log.info(p.toString()));
+	// rows are formatted in the transaction of the load, toString may read lazy associations
+	private List<String> section(String name, long count, Supplier<List<?>> firstRows) {
+		List<String> lines = new ArrayList<>();
+		lines.add(String.format("%1$s: %2$d", name, count));
+		if (samples > 0) {
+			firstRows.get().forEach(row -> lines.add("  " + row));
+		}
+		return lines;
 	}
 
 }
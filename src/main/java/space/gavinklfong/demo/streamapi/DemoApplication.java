@@ -2,8 +2,10 @@ package space.gavinklfong.demo.streamapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// the R2DBC connection factory is not a bean (see ReactiveDatabase), JDBC and JPA back off when there is one
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class DemoApplication {
 
 	public static void main(String[] args) {
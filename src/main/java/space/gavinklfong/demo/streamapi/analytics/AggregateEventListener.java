@@ -0,0 +1,185 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.ProductPricesChanged;
+
+/**
+ * Feeds entity writes into {@link OrderAggregates}. Order and product
+ * inserts, updates and deletes are caught, as well as changes of the
+ * order -> product collection (order_product_relationship). The changes are
+ * captured when flushed, collected with one synchronization per transaction,
+ * the last state of each entity replacing the previous ones, and applied once
+ * the transaction commits, so rolled back writes are ignored.
+ * Bulk price updates do not raise entity events, they are picked up from
+ * {@link ProductPricesChanged} instead.
+ */
+@Component
+public class AggregateEventListener extends EntityEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		saved(event.getEntity());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		saved(event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		Object entity = event.getEntity();
+		if (entity instanceof Order) {
+			long id = ((Order) entity).getId();
+			record(changes -> changes.orders.put(id, PendingOrder.REMOVED));
+		} else if (entity instanceof Product) {
+			long id = ((Product) entity).getId();
+			record(changes -> changes.products.put(id, PendingProduct.REMOVED));
+		}
+	}
+
+	@TransactionalEventListener
+	public void onProductPricesChanged(ProductPricesChanged event) {
+		aggregates.categoryRepriced(event.getCategory(), event.getFactor());
+	}
+
+	private void saved(Object entity) {
+		if (entity instanceof Order) {
+			orderSaved((Order) entity);
+		} else if (entity instanceof Product) {
+			Product product = (Product) entity;
+			PendingProduct saved = new PendingProduct(product.getCategory(), product.getPrice());
+			record(changes -> changes.products.put(product.getId(), saved));
+		}
+	}
+
+	@Override
+	protected void collectionChanged(AbstractCollectionEvent event) {
+		Object owner = event.getAffectedOwnerOrNull();
+		if (owner instanceof Order) {
+			orderSaved((Order) owner);
+		}
+	}
+
+	private void orderSaved(Order order) {
+		long id = order.getId();
+		LocalDate orderDate = order.getOrderDate();
+		// an uninitialized collection leaves the products unknown, a null one has none
+		long[] productIds = order.getProducts() == null
+				? new long[0]
+				: Hibernate.isInitialized(order.getProducts())
+						? order.getProducts().stream().mapToLong(Product::getId).distinct().toArray()
+						: null;
+		record(changes -> {
+			PendingOrder previous = changes.orders.get(id);
+			long[] knownProducts = productIds == null && previous != null ? previous.productIds : productIds;
+			changes.orders.put(id, new PendingOrder(orderDate, knownProducts));
+		});
+	}
+
+	// the changes of a transaction are collected in one place and applied on commit
+	private void record(Consumer<Changes> change) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			Changes changes = new Changes();
+			change.accept(changes);
+			apply(changes);
+			return;
+		}
+		Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+		if (changes == null) {
+			Changes transactionChanges = new Changes();
+			TransactionSynchronizationManager.bindResource(this, transactionChanges);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(AggregateEventListener.this);
+					if (status == STATUS_COMMITTED) {
+						apply(transactionChanges);
+					}
+				}
+			});
+			changes = transactionChanges;
+		}
+		change.accept(changes);
+	}
+
+	// products first, so the orders are totalled with the committed prices
+	private void apply(Changes changes) {
+		changes.products.forEach((id, product) -> {
+			if (product == PendingProduct.REMOVED) {
+				aggregates.productRemoved(id);
+			} else {
+				aggregates.productSaved(id, product.category, product.price);
+			}
+		});
+		changes.orders.forEach((id, order) -> {
+			if (order == PendingOrder.REMOVED) {
+				aggregates.orderRemoved(id);
+			} else {
+				aggregates.orderSaved(id, order.orderDate, order.productIds);
+			}
+		});
+	}
+
+	/**
+	 * Last state of the orders and products written in a transaction, by id.
+	 */
+	private static class Changes {
+
+		final Map<Long, PendingProduct> products = new LinkedHashMap<>();
+		final Map<Long, PendingOrder> orders = new LinkedHashMap<>();
+
+	}
+
+	private static class PendingProduct {
+
+		static final PendingProduct REMOVED = new PendingProduct(null, 0);
+
+		final String category;
+		final double price;
+
+		PendingProduct(String category, double price) {
+			this.category = category;
+			this.price = price;
+		}
+
+	}
+
+	private static class PendingOrder {
+
+		static final PendingOrder REMOVED = new PendingOrder(null, null);
+
+		final LocalDate orderDate;
+		// null when the products were not loaded, the known ones are kept
+		final long[] productIds;
+
+		PendingOrder(LocalDate orderDate, long[] productIds) {
+			this.orderDate = orderDate;
+			this.productIds = productIds;
+		}
+
+	}
+
+}
@@ -0,0 +1,151 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.CategoryNames;
+import space.gavinklfong.demo.streamapi.repos.CustomerOrderCount;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderTotal;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Runs the grouping exercises either in memory, with streams over the
+ * entities, or pushed down to the database as GROUP BY and window function
+ * queries returning one row per group.
+ * <p>
+ * The plan is chosen from the row count of the table scanned: up to
+ * {@code analytics.pushdown-threshold} rows the entities are loaded (the
+ * products from the second-level cache) and grouped in memory, above it the
+ * database groups them and only the groups are transferred. The plans chosen
+ * are counted in {@value #PLANS}, tagged with the aggregation and the plan.
+ */
+@Component
+public class AggregationPlanner {
+
+	public static final String PLANS = "analytics.plans";
+
+	public enum Plan {
+		IN_MEMORY, PUSHDOWN
+	}
+
+	// highest price first, the lowest id among equally priced products
+	private static final Comparator<Product> MOST_EXPENSIVE = Comparator.comparingDouble(Product::getPrice)
+			.reversed()
+			.thenComparingLong(Product::getId);
+
+	private final OrderRepo orderRepo;
+	private final ProductRepo productRepo;
+	private final TransactionTemplate readOnly;
+	private final long pushdownThreshold;
+	private final MeterRegistry registry;
+
+	public AggregationPlanner(OrderRepo orderRepo, ProductRepo productRepo, PlatformTransactionManager transactionManager,
+			@Value("${analytics.pushdown-threshold:1000}") long pushdownThreshold, MeterRegistry registry) {
+		this.orderRepo = orderRepo;
+		this.productRepo = productRepo;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+		this.pushdownThreshold = pushdownThreshold;
+		this.registry = registry;
+	}
+
+	public Plan plan(long estimatedRows) {
+		return estimatedRows > pushdownThreshold ? Plan.PUSHDOWN : Plan.IN_MEMORY;
+	}
+
+	// exercise 12, number of orders by customer id
+
+	public Map<Long, Long> orderCountByCustomer() {
+		return orderCountByCustomer(plan("orderCountByCustomer", orderRepo::count));
+	}
+
+	public Map<Long, Long> orderCountByCustomer(Plan plan) {
+		return readOnly.execute(tx -> plan == Plan.PUSHDOWN
+				? orderRepo.countOrdersByCustomer()
+						.stream()
+						.collect(Collectors.toMap(CustomerOrderCount::getCustomerId, CustomerOrderCount::getOrders))
+				: orderRepo.findAll()
+						.stream()
+						.filter(o -> o.getCustomer() != null)
+						.collect(Collectors.groupingBy(o -> o.getCustomer().getId(), Collectors.counting())));
+	}
+
+	// exercise 13, total price by order id
+
+	public Map<Long, Double> orderTotals() {
+		return orderTotals(plan("orderTotals", orderRepo::count));
+	}
+
+	public Map<Long, Double> orderTotals(Plan plan) {
+		return readOnly.execute(tx -> plan == Plan.PUSHDOWN
+				? orderRepo.findAllOrderTotals()
+						.stream()
+						.collect(Collectors.toMap(OrderTotal::getOrderId, OrderTotal::getTotal))
+				: orderRepo.findAllWithProducts()
+						.stream()
+						.collect(Collectors.toMap(Order::getId, o -> o.getProducts()
+								.stream()
+								.mapToDouble(Product::getPrice)
+								.sum())));
+	}
+
+	// exercise 14, product names by category, in product id order
+
+	public Map<String, List<String>> productNamesByCategory() {
+		return productNamesByCategory(plan("productNamesByCategory", productRepo::count));
+	}
+
+	public Map<String, List<String>> productNamesByCategory(Plan plan) {
+		return readOnly.execute(tx -> plan == Plan.PUSHDOWN
+				? productRepo.findNamesByCategory()
+						.stream()
+						.collect(Collectors.toMap(CategoryNames::getCategory, CategoryNames::getNameList))
+				: productRepo.findAll()
+						.stream()
+						.sorted(Comparator.comparing(Product::getId))
+						.collect(Collectors.groupingBy(Product::getCategory,
+								Collectors.mapping(Product::getName, Collectors.toList()))));
+	}
+
+	// exercise 15, most expensive product by category
+
+	public Map<String, Product> mostExpensiveProductByCategory() {
+		return mostExpensiveProductByCategory(plan("mostExpensiveProductByCategory", productRepo::count));
+	}
+
+	public Map<String, Product> mostExpensiveProductByCategory(Plan plan) {
+		return readOnly.execute(tx -> {
+			if (plan == Plan.PUSHDOWN) {
+				Map<String, Product> result = new LinkedHashMap<>();
+				productRepo.findMostExpensiveByCategory().forEach(p -> result.put(p.getCategory(), p));
+				return result;
+			}
+			Map<String, Product> result = new HashMap<>();
+			productRepo.findAll().forEach(p -> result.merge(p.getCategory(), p,
+					(a, b) -> MOST_EXPENSIVE.compare(a, b) <= 0 ? a : b));
+			return result;
+		});
+	}
+
+	private Plan plan(String aggregation, Supplier<Long> estimatedRows) {
+		Plan plan = plan(estimatedRows.get());
+		registry.counter(PLANS, "aggregation", aggregation, "plan", plan.name().toLowerCase()).increment();
+		return plan;
+	}
+
+}
@@ -0,0 +1,82 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.collectors.MoneyCollectors;
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Money;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * The parameterized exercise questions, answered from the
+ * {@link QueryResultCache} when they were asked before. The results are
+ * shared and unmodifiable, the entities in them are fully loaded and
+ * detached and must not be modified.
+ */
+@Component
+public class AnalyticsQueries {
+
+	private static final Set<Class<?>> PRODUCTS = Set.of(Product.class);
+	private static final Set<Class<?>> ORDERS = Set.of(Order.class, Customer.class, Product.class);
+
+	private final OrderRepo orderRepo;
+	private final ProductRepo productRepo;
+	private final QueryResultCache cache;
+	private final TransactionTemplate readOnly;
+
+	public AnalyticsQueries(OrderRepo orderRepo, ProductRepo productRepo, QueryResultCache cache,
+			PlatformTransactionManager transactionManager) {
+		this.orderRepo = orderRepo;
+		this.productRepo = productRepo;
+		this.cache = cache;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+	}
+
+	// exercise 1
+	public List<Product> productsPricedAbove(String category, double price) {
+		return cache.get("productsPricedAbove", PRODUCTS, () -> readOnly.execute(tx -> Collections.unmodifiableList(
+				productRepo.findByCategoryAndPriceGreaterThan(category, price))),
+				category, price);
+	}
+
+	// exercise 4
+	public List<Product> productsOrderedByTier(int tier, LocalDate from, LocalDate to) {
+		return cache.get("productsOrderedByTier", ORDERS, () -> readOnly.execute(tx -> orderRepo
+				.findByCustomerTierAndOrderDateBetweenWithProducts(tier, from, to)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toUnmodifiableList())),
+				tier, from, to);
+	}
+
+	// exercise 7, with their customer, if any, and products
+	public List<Order> ordersOn(LocalDate date) {
+		return cache.get("ordersOn", ORDERS, () -> readOnly.execute(tx -> Collections.unmodifiableList(
+				orderRepo.findByOrderDateBetweenWithCustomerAndProducts(date, date))),
+				date);
+	}
+
+	// exercise 8, lump sum of the orders between two dates, inclusive, added in cents
+	public double totalPrice(LocalDate from, LocalDate to) {
+		return cache.get("totalPrice", ORDERS, () -> readOnly.execute(tx -> orderRepo
+				.findOrderTotalsByOrderDateBetween(from, to)
+				.stream()
+				.collect(MoneyCollectors.summing(t -> Money.toCents(t.getTotal())))
+				.toDouble()),
+				from, to);
+	}
+
+}
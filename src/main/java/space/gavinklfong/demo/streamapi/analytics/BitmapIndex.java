@@ -0,0 +1,55 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.BitSet;
+
+/**
+ * One bitmap of row numbers per dictionary code. A row may be set in several
+ * bitmaps, e.g. an order belongs to the category of every product it contains.
+ */
+public class BitmapIndex {
+
+	private static final BitSet EMPTY = new BitSet(0);
+
+	private final BitSet[] bitmaps;
+
+	public BitmapIndex(int cardinality, int rows) {
+		bitmaps = new BitSet[cardinality];
+		for (int code = 0; code < cardinality; code++) {
+			bitmaps[code] = new BitSet(rows);
+		}
+	}
+
+	/** Index of a single valued column, {@code codes[row]} is the code of each row. */
+	public static BitmapIndex of(int[] codes, int cardinality) {
+		BitmapIndex index = new BitmapIndex(cardinality, codes.length);
+		for (int row = 0; row < codes.length; row++) {
+			index.add(codes[row], row);
+		}
+		return index;
+	}
+
+	/** Rows without a value, coded {@link Dictionary#MISSING}, are left out. */
+	public void add(int code, int row) {
+		if (code != Dictionary.MISSING) {
+			bitmaps[code].set(row);
+		}
+	}
+
+	/**
+	 * Rows of the code, or an empty bitmap for {@link Dictionary#MISSING}. The
+	 * bitmap is shared and must not be modified.
+	 */
+	BitSet rows(int code) {
+		return code == Dictionary.MISSING ? EMPTY : bitmaps[code];
+	}
+
+	/** Copy of the rows of the code. */
+	public BitSet get(int code) {
+		return (BitSet) rows(code).clone();
+	}
+
+	public int count(int code) {
+		return rows(code).cardinality();
+	}
+
+}
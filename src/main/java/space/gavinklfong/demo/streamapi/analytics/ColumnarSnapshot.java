@@ -0,0 +1,434 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Read-only, column oriented copy of customers, products and orders. Every
+ * attribute is held in a primitive array indexed by row, categories are
+ * encoded as ints, order dates as epoch days and the order -> product
+ * relationship in CSR form (the products of order {@code i} are
+ * {@code orderProducts[orderProductOffsets[i] .. orderProductOffsets[i + 1])}).
+ *
+ * Categories and customer tiers are dictionary encoded, with a bitmap index
+ * of the products and orders of each category and of the orders of each tier,
+ * so that category and tier filters compare ints or read a precomputed set.
+ * A missing category, tier or customer is coded {@link Dictionary#MISSING}
+ * and a missing order date {@link #NO_DAY}, such rows match no filter on
+ * that attribute and are left out of the groups by it.
+ *
+ * The query methods answer the StreamApiTest exercises by scanning these
+ * arrays and return ids rather than entities.
+ */
+public class ColumnarSnapshot {
+
+	// epoch day of the orders without a date, before any date filter
+	static final int NO_DAY = Integer.MIN_VALUE;
+
+	private final Dictionary<String> categories = Dictionary.caseInsensitive();
+	private final Dictionary<Integer> tiers = Dictionary.exact();
+
+	private final long[] customerIds;
+	private final int[] customerTiers;
+
+	private final long[] productIds;
+	private final String[] productNames;
+	private final int[] productCategories;
+	private final double[] productPrices;
+
+	private final long[] orderIds;
+	private final int[] orderDays;
+	private final int[] orderCustomers;
+	private final int[] orderProductOffsets;
+	private final int[] orderProducts;
+
+	private final BitmapIndex productsByCategory;
+	private final BitmapIndex ordersByCategory;
+	private final BitmapIndex ordersByTier;
+
+	private ColumnarSnapshot(Collection<Customer> customers, Collection<Product> products, Collection<Order> orders) {
+		Map<Long, Integer> customerIndex = new HashMap<>(customers.size() * 2);
+		customerIds = new long[customers.size()];
+		customerTiers = new int[customers.size()];
+		int row = 0;
+		for (Customer customer : customers) {
+			customerIds[row] = customer.getId();
+			customerTiers[row] = tiers.encode(customer.getTier());
+			customerIndex.put(customer.getId(), row++);
+		}
+
+		Map<Long, Integer> productIndex = new HashMap<>(products.size() * 2);
+		productIds = new long[products.size()];
+		productNames = new String[products.size()];
+		productCategories = new int[products.size()];
+		productPrices = new double[products.size()];
+		row = 0;
+		for (Product product : products) {
+			productIds[row] = product.getId();
+			productNames[row] = product.getName();
+			productCategories[row] = categories.encode(product.getCategory());
+			productPrices[row] = product.getPrice();
+			productIndex.put(product.getId(), row++);
+		}
+		productsByCategory = BitmapIndex.of(productCategories, categories.size());
+
+		orderIds = new long[orders.size()];
+		orderDays = new int[orders.size()];
+		orderCustomers = new int[orders.size()];
+		orderProductOffsets = new int[orders.size() + 1];
+		int links = 0;
+		for (Order order : orders) {
+			links += order.getProducts().size();
+		}
+		orderProducts = new int[links];
+		row = 0;
+		links = 0;
+		for (Order order : orders) {
+			orderIds[row] = order.getId();
+			orderDays[row] = order.getOrderDate() == null ? NO_DAY : (int) order.getOrderDate().toEpochDay();
+			orderCustomers[row] = order.getCustomer() == null ? Dictionary.MISSING
+					: customerIndex.get(order.getCustomer().getId());
+			orderProductOffsets[row] = links;
+			for (Product product : order.getProducts()) {
+				orderProducts[links++] = productIndex.get(product.getId());
+			}
+			row++;
+		}
+		orderProductOffsets[row] = links;
+
+		ordersByCategory = new BitmapIndex(categories.size(), orderIds.length);
+		int[] orderTiers = new int[orderIds.length];
+		for (int o = 0; o < orderIds.length; o++) {
+			orderTiers[o] = orderCustomers[o] == Dictionary.MISSING ? Dictionary.MISSING
+					: customerTiers[orderCustomers[o]];
+			for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+				ordersByCategory.add(productCategories[orderProducts[i]], o);
+			}
+		}
+		ordersByTier = BitmapIndex.of(orderTiers, tiers.size());
+	}
+
+	/**
+	 * Builds a snapshot, the products of every order must be loaded and
+	 * contained in {@code products}, and the customers in {@code customers}.
+	 */
+	public static ColumnarSnapshot of(Collection<Customer> customers, Collection<Product> products, Collection<Order> orders) {
+		return new ColumnarSnapshot(customers, products, orders);
+	}
+
+	public int customerCount() {
+		return customerIds.length;
+	}
+
+	public int productCount() {
+		return productIds.length;
+	}
+
+	public int orderCount() {
+		return orderIds.length;
+	}
+
+	/** Order ids, the per order results below are aligned with this array. */
+	public long[] orderIds() {
+		return orderIds.clone();
+	}
+
+	// exercise 1
+	public long[] productsByCategoryAbovePrice(String category, double price) {
+		BitSet rows = productsByCategory.rows(categories.code(category));
+		LongArrayBuilder result = new LongArrayBuilder();
+		for (int p = rows.nextSetBit(0); p >= 0; p = rows.nextSetBit(p + 1)) {
+			if (productPrices[p] > price) {
+				result.add(productIds[p]);
+			}
+		}
+		return result.toArray();
+	}
+
+	// exercise 2
+	public long[] ordersWithProductCategory(String category) {
+		return ids(orderIds, ordersByCategory.rows(categories.code(category)));
+	}
+
+	public int countOrdersWithProductCategory(String category) {
+		return ordersByCategory.count(categories.code(category));
+	}
+
+	public long[] productsByCategory(String category) {
+		return ids(productIds, productsByCategory.rows(categories.code(category)));
+	}
+
+	public int countProductsByCategory(String category) {
+		return productsByCategory.count(categories.code(category));
+	}
+
+	// exercise 3, aligned with productsByCategory(category)
+	public double[] discountedPrices(String category, double discount) {
+		BitSet rows = productsByCategory.rows(categories.code(category));
+		double factor = 1 - discount;
+		double[] result = new double[rows.cardinality()];
+		int i = 0;
+		for (int p = rows.nextSetBit(0); p >= 0; p = rows.nextSetBit(p + 1)) {
+			result[i++] = productPrices[p] * factor;
+		}
+		return result;
+	}
+
+	// exercise 4, order dates are inclusive
+	public long[] productsOrderedByTierBetween(int tier, LocalDate from, LocalDate to) {
+		int fromDay = (int) from.toEpochDay();
+		int toDay = (int) to.toEpochDay();
+		BitSet rows = ordersByTier.rows(tiers.code(tier));
+		BitSet seen = new BitSet(productIds.length);
+		LongArrayBuilder result = new LongArrayBuilder();
+		for (int o = rows.nextSetBit(0); o >= 0; o = rows.nextSetBit(o + 1)) {
+			if (orderDays[o] >= fromDay && orderDays[o] <= toDay) {
+				for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+					int p = orderProducts[i];
+					if (!seen.get(p)) {
+						seen.set(p);
+						result.add(productIds[p]);
+					}
+				}
+			}
+		}
+		return result.toArray();
+	}
+
+	// exercise 5, cheapest first
+	public long[] cheapestProducts(String category, int limit) {
+		if (limit <= 0) {
+			return new long[0];
+		}
+		BitSet rows = productsByCategory.rows(categories.code(category));
+		int[] top = new int[limit];
+		int size = 0;
+		for (int p = rows.nextSetBit(0); p >= 0; p = rows.nextSetBit(p + 1)) {
+			if (size < limit) {
+				size++;
+			} else if (productPrices[p] >= productPrices[top[limit - 1]]) {
+				continue;
+			}
+			int i = size - 1;
+			while (i > 0 && productPrices[top[i - 1]] > productPrices[p]) {
+				top[i] = top[i - 1];
+				i--;
+			}
+			top[i] = p;
+		}
+		long[] result = new long[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = productIds[top[i]];
+		}
+		return result;
+	}
+
+	// exercise 6, most recent first
+	public long[] mostRecentOrders(int limit) {
+		if (limit <= 0) {
+			return new long[0];
+		}
+		int[] top = new int[limit];
+		int size = 0;
+		for (int o = 0; o < orderIds.length; o++) {
+			if (size < limit) {
+				size++;
+			} else if (orderDays[o] <= orderDays[top[limit - 1]]) {
+				continue;
+			}
+			int i = size - 1;
+			while (i > 0 && orderDays[top[i - 1]] < orderDays[o]) {
+				top[i] = top[i - 1];
+				i--;
+			}
+			top[i] = o;
+		}
+		long[] result = new long[size];
+		for (int i = 0; i < size; i++) {
+			result[i] = orderIds[top[i]];
+		}
+		return result;
+	}
+
+	// exercise 7
+	public long[] productsOrderedOn(LocalDate orderDate) {
+		int day = (int) orderDate.toEpochDay();
+		BitSet seen = new BitSet(productIds.length);
+		LongArrayBuilder result = new LongArrayBuilder();
+		for (int o = 0; o < orderIds.length; o++) {
+			if (orderDays[o] == day) {
+				for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+					int p = orderProducts[i];
+					if (!seen.get(p)) {
+						seen.set(p);
+						result.add(productIds[p]);
+					}
+				}
+			}
+		}
+		return result.toArray();
+	}
+
+	// exercise 8, order dates are inclusive
+	public double totalPriceBetween(LocalDate from, LocalDate to) {
+		int fromDay = (int) from.toEpochDay();
+		int toDay = (int) to.toEpochDay();
+		double sum = 0;
+		for (int o = 0; o < orderIds.length; o++) {
+			if (orderDays[o] >= fromDay && orderDays[o] <= toDay) {
+				for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+					sum += productPrices[orderProducts[i]];
+				}
+			}
+		}
+		return sum;
+	}
+
+	// exercise 9
+	public OptionalDouble averagePriceOn(LocalDate orderDate) {
+		int day = (int) orderDate.toEpochDay();
+		double sum = 0;
+		long count = 0;
+		for (int o = 0; o < orderIds.length; o++) {
+			if (orderDays[o] == day) {
+				for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+					sum += productPrices[orderProducts[i]];
+					count++;
+				}
+			}
+		}
+		return count == 0 ? OptionalDouble.empty() : OptionalDouble.of(sum / count);
+	}
+
+	// exercise 10
+	public DoubleSummaryStatistics priceStatistics(String category) {
+		BitSet rows = productsByCategory.rows(categories.code(category));
+		DoubleSummaryStatistics statistics = new DoubleSummaryStatistics();
+		for (int p = rows.nextSetBit(0); p >= 0; p = rows.nextSetBit(p + 1)) {
+			statistics.accept(productPrices[p]);
+		}
+		return statistics;
+	}
+
+	// exercise 11, aligned with orderIds()
+	public int[] productCounts() {
+		int[] result = new int[orderIds.length];
+		for (int o = 0; o < orderIds.length; o++) {
+			result[o] = orderProductOffsets[o + 1] - orderProductOffsets[o];
+		}
+		return result;
+	}
+
+	// exercise 12
+	public Map<Long, long[]> orderIdsByCustomer() {
+		int[] counts = new int[customerIds.length];
+		for (int customer : orderCustomers) {
+			if (customer != Dictionary.MISSING) {
+				counts[customer]++;
+			}
+		}
+		long[][] grouped = new long[customerIds.length][];
+		for (int c = 0; c < customerIds.length; c++) {
+			grouped[c] = new long[counts[c]];
+			counts[c] = 0;
+		}
+		for (int o = 0; o < orderIds.length; o++) {
+			int c = orderCustomers[o];
+			if (c != Dictionary.MISSING) {
+				grouped[c][counts[c]++] = orderIds[o];
+			}
+		}
+		Map<Long, long[]> result = new HashMap<>(customerIds.length * 2);
+		for (int c = 0; c < customerIds.length; c++) {
+			if (grouped[c].length > 0) {
+				result.put(customerIds[c], grouped[c]);
+			}
+		}
+		return result;
+	}
+
+	// exercise 13, aligned with orderIds()
+	public double[] orderTotals() {
+		double[] result = new double[orderIds.length];
+		for (int o = 0; o < orderIds.length; o++) {
+			double sum = 0;
+			for (int i = orderProductOffsets[o]; i < orderProductOffsets[o + 1]; i++) {
+				sum += productPrices[orderProducts[i]];
+			}
+			result[o] = sum;
+		}
+		return result;
+	}
+
+	// exercise 14
+	public Map<String, List<String>> productNamesByCategory() {
+		Map<String, List<String>> result = new LinkedHashMap<>();
+		for (int c = 0; c < categories.size(); c++) {
+			BitSet rows = productsByCategory.rows(c);
+			List<String> names = new ArrayList<>(rows.cardinality());
+			for (int p = rows.nextSetBit(0); p >= 0; p = rows.nextSetBit(p + 1)) {
+				names.add(productNames[p]);
+			}
+			result.put(categories.decode(c), names);
+		}
+		return result;
+	}
+
+	// exercise 15, id of the most expensive product per category
+	public Map<String, Long> mostExpensiveProductByCategory() {
+		int[] max = new int[categories.size()];
+		Arrays.fill(max, -1);
+		for (int p = 0; p < productIds.length; p++) {
+			int c = productCategories[p];
+			if (c != Dictionary.MISSING && (max[c] < 0 || productPrices[p] > productPrices[max[c]])) {
+				max[c] = p;
+			}
+		}
+		Map<String, Long> result = new LinkedHashMap<>();
+		for (int c = 0; c < categories.size(); c++) {
+			result.put(categories.decode(c), productIds[max[c]]);
+		}
+		return result;
+	}
+
+	private static long[] ids(long[] rowIds, BitSet rows) {
+		long[] result = new long[rows.cardinality()];
+		int i = 0;
+		for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+			result[i++] = rowIds[row];
+		}
+		return result;
+	}
+
+	private static class LongArrayBuilder {
+
+		private long[] values = new long[16];
+		private int size;
+
+		void add(long value) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = value;
+		}
+
+		long[] toArray() {
+			return Arrays.copyOf(values, size);
+		}
+
+	}
+
+}
@@ -0,0 +1,36 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade.await;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Loads the customers, products and orders concurrently, the snapshot joins
+ * them by id so they don't need to come from the same persistence context.
+ */
+@Component
+public class ColumnarSnapshotLoader {
+
+	@Autowired
+	private AsyncRepositoryFacade repos;
+
+	public ColumnarSnapshot load() {
+		CompletableFuture<List<Customer>> customers = repos.customers(CustomerRepo::findAll);
+		CompletableFuture<List<Product>> products = repos.products(ProductRepo::findAll);
+		CompletableFuture<List<Order>> orders = repos.orders(OrderRepo::findAllWithProducts);
+		return ColumnarSnapshot.of(await(customers), await(products), await(orders));
+	}
+
+}
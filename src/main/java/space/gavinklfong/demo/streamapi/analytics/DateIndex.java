@@ -0,0 +1,165 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * In-memory time index, values are kept in one bucket per day and the
+ * buckets in a sorted array of epoch days. A day or a date range is found by
+ * binary search, so lookups take O(log d + k) for d distinct days and k
+ * matching values, instead of a scan comparing every date.
+ * <p>
+ * Ranges are inclusive at both ends, values of a day are kept in insertion
+ * order. Not thread-safe.
+ */
+public class DateIndex<T> {
+
+	private static final int INITIAL_DAYS = 16;
+	private static final int INITIAL_BUCKET = 4;
+
+	private int[] days = new int[INITIAL_DAYS];
+	private Object[][] buckets = new Object[INITIAL_DAYS][];
+	private int[] counts = new int[INITIAL_DAYS];
+	private int dayCount;
+	private int size;
+
+	public static <T> DateIndex<T> of(Collection<? extends T> values, Function<? super T, LocalDate> date) {
+		DateIndex<T> index = new DateIndex<>();
+		values.forEach(value -> index.add(date.apply(value), value));
+		return index;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void add(LocalDate date, T value) {
+		int day = epochDay(date);
+		int i = Arrays.binarySearch(days, 0, dayCount, day);
+		if (i < 0) {
+			i = insertDay(-i - 1, day);
+		}
+		Object[] bucket = buckets[i];
+		if (counts[i] == bucket.length) {
+			bucket = buckets[i] = Arrays.copyOf(bucket, bucket.length * 2);
+		}
+		bucket[counts[i]++] = value;
+		size++;
+	}
+
+	/**
+	 * Removes the first value of the day that equals {@code value}.
+	 */
+	public boolean remove(LocalDate date, T value) {
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(date));
+		if (i < 0) {
+			return false;
+		}
+		Object[] bucket = buckets[i];
+		for (int j = 0; j < counts[i]; j++) {
+			if (Objects.equals(bucket[j], value)) {
+				System.arraycopy(bucket, j + 1, bucket, j, counts[i] - j - 1);
+				bucket[--counts[i]] = null;
+				size--;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void clear() {
+		days = new int[INITIAL_DAYS];
+		buckets = new Object[INITIAL_DAYS][];
+		counts = new int[INITIAL_DAYS];
+		dayCount = 0;
+		size = 0;
+	}
+
+	public List<T> on(LocalDate date) {
+		return between(date, date);
+	}
+
+	public List<T> between(LocalDate from, LocalDate to) {
+		int first = firstDay(from);
+		int last = lastDay(to);
+		int count = 0;
+		for (int i = first; i < last; i++) {
+			count += counts[i];
+		}
+		if (count == 0) {
+			return Collections.emptyList();
+		}
+		List<T> result = new ArrayList<>(count);
+		forEachBetween(first, last, result::add);
+		return result;
+	}
+
+	public int countBetween(LocalDate from, LocalDate to) {
+		int count = 0;
+		for (int i = firstDay(from), last = lastDay(to); i < last; i++) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	public void forEachBetween(LocalDate from, LocalDate to, Consumer<? super T> action) {
+		forEachBetween(firstDay(from), lastDay(to), action);
+	}
+
+	@SuppressWarnings("unchecked")
+	private void forEachBetween(int first, int last, Consumer<? super T> action) {
+		for (int i = first; i < last; i++) {
+			Object[] bucket = buckets[i];
+			for (int j = 0; j < counts[i]; j++) {
+				action.accept((T) bucket[j]);
+			}
+		}
+	}
+
+	// index of the first day on or after from
+	private int firstDay(LocalDate from) {
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(from));
+		return i < 0 ? -i - 1 : i;
+	}
+
+	// index after the last day on or before to
+	private int lastDay(LocalDate to) {
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(to));
+		return i < 0 ? -i - 1 : i + 1;
+	}
+
+	private int insertDay(int i, int day) {
+		if (dayCount == days.length) {
+			int capacity = days.length * 2;
+			days = Arrays.copyOf(days, capacity);
+			buckets = Arrays.copyOf(buckets, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+		}
+		System.arraycopy(days, i, days, i + 1, dayCount - i);
+		System.arraycopy(buckets, i, buckets, i + 1, dayCount - i);
+		System.arraycopy(counts, i, counts, i + 1, dayCount - i);
+		days[i] = day;
+		buckets[i] = new Object[INITIAL_BUCKET];
+		counts[i] = 0;
+		dayCount++;
+		return i;
+	}
+
+	private static int epochDay(LocalDate date) {
+		return Math.toIntExact(date.toEpochDay());
+	}
+
+	// range bounds such as LocalDate.MIN are clamped to the days that can be added
+	private static int searchDay(LocalDate date) {
+		long day = date.toEpochDay();
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, day));
+	}
+
+}
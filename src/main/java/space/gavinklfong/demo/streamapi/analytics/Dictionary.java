@@ -0,0 +1,68 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Maps each distinct value to a small int code, assigned in order of first
+ * appearance, so that filters compare ints instead of values. Lookups go
+ * through a key function, e.g. to match categories case-insensitively.
+ * Null is not encoded, its code is {@link #MISSING}.
+ */
+public class Dictionary<T> {
+
+	public static final int MISSING = -1;
+
+	private final Function<T, Object> keyFunction;
+	private final Map<Object, Integer> codes = new HashMap<>();
+	private final List<T> values = new ArrayList<>();
+
+	private Dictionary(Function<T, Object> keyFunction) {
+		this.keyFunction = keyFunction;
+	}
+
+	public static <T> Dictionary<T> exact() {
+		return new Dictionary<>(value -> value);
+	}
+
+	public static Dictionary<String> caseInsensitive() {
+		return new Dictionary<>(value -> value.toLowerCase(Locale.ROOT));
+	}
+
+	/** Returns the code of the value, adding it to the dictionary if needed. */
+	public int encode(T value) {
+		if (value == null) {
+			return MISSING;
+		}
+		Object key = keyFunction.apply(value);
+		Integer code = codes.get(key);
+		if (code == null) {
+			code = values.size();
+			values.add(value);
+			codes.put(key, code);
+		}
+		return code;
+	}
+
+	/** Returns the code of the value, or {@link #MISSING}. */
+	public int code(T value) {
+		if (value == null) {
+			return MISSING;
+		}
+		return codes.getOrDefault(keyFunction.apply(value), MISSING);
+	}
+
+	/** Returns the value of the code, as first encoded. */
+	public T decode(int code) {
+		return values.get(code);
+	}
+
+	public int size() {
+		return values.size();
+	}
+
+}
@@ -0,0 +1,37 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Registers the {@link EntityEventListener} beans with Hibernate. Nothing
+ * injects this bean or the listeners, it is created eagerly so that entity
+ * writes reach them under lazy initialization too.
+ */
+@Component
+@Lazy(false)
+public class EntityEventListenerRegistrar {
+
+	public EntityEventListenerRegistrar(EntityManagerFactory entityManagerFactory,
+			List<EntityEventListener> listeners) {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+				.getServiceRegistry()
+				.getService(EventListenerRegistry.class);
+		for (EntityEventListener listener : listeners) {
+			registry.appendListeners(EventType.POST_INSERT, listener);
+			registry.appendListeners(EventType.POST_UPDATE, listener);
+			registry.appendListeners(EventType.POST_DELETE, listener);
+			registry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+			registry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+			registry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+import space.gavinklfong.demo.streamapi.collectors.LongLongHashMap;
+
+/**
+ * {@link DateIndex} of distinct {@code long} ids, such as order ids. The ids
+ * of a day are kept in a primitive {@code long[]} bucket and the slot of each
+ * id in a {@link LongLongHashMap}, so nothing is boxed and an id is removed
+ * in O(log d) by moving the last id of its day into its slot.
+ * <p>
+ * Ranges are inclusive at both ends, the ids of a day are in no particular
+ * order once ids were removed. Not thread-safe.
+ */
+public class LongDateIndex {
+
+	private static final int INITIAL_DAYS = 16;
+	private static final int INITIAL_BUCKET = 4;
+
+	private int[] days = new int[INITIAL_DAYS];
+	private long[][] buckets = new long[INITIAL_DAYS][];
+	private int[] counts = new int[INITIAL_DAYS];
+	private final LongLongHashMap slots = new LongLongHashMap();
+	private int dayCount;
+
+	public int size() {
+		return slots.size();
+	}
+
+	/**
+	 * Adds {@code id} on {@code date}, the id must not be in the index already.
+	 */
+	public void add(LocalDate date, long id) {
+		if (slots.containsKey(id)) {
+			throw new IllegalArgumentException("id already indexed: " + id);
+		}
+		int day = epochDay(date);
+		int i = Arrays.binarySearch(days, 0, dayCount, day);
+		if (i < 0) {
+			i = insertDay(-i - 1, day);
+		}
+		long[] bucket = buckets[i];
+		if (counts[i] == bucket.length) {
+			bucket = buckets[i] = Arrays.copyOf(bucket, bucket.length * 2);
+		}
+		slots.put(id, counts[i]);
+		bucket[counts[i]++] = id;
+	}
+
+	/**
+	 * Removes {@code id} if it was added on {@code date}.
+	 */
+	public boolean remove(LocalDate date, long id) {
+		int slot = (int) slots.get(id, -1);
+		if (slot < 0) {
+			return false;
+		}
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(date));
+		if (i < 0 || slot >= counts[i] || buckets[i][slot] != id) {
+			return false;
+		}
+		long[] bucket = buckets[i];
+		long last = bucket[--counts[i]];
+		bucket[slot] = last;
+		slots.put(last, slot);
+		slots.remove(id, -1);
+		return true;
+	}
+
+	public void clear() {
+		days = new int[INITIAL_DAYS];
+		buckets = new long[INITIAL_DAYS][];
+		counts = new int[INITIAL_DAYS];
+		slots.clear();
+		dayCount = 0;
+	}
+
+	public long[] on(LocalDate date) {
+		return between(date, date);
+	}
+
+	/** Ids from {@code from} to {@code to}, by date. */
+	public long[] between(LocalDate from, LocalDate to) {
+		int first = firstDay(from);
+		int last = lastDay(to);
+		int count = 0;
+		for (int i = first; i < last; i++) {
+			count += counts[i];
+		}
+		long[] result = new long[count];
+		int n = 0;
+		for (int i = first; i < last; i++) {
+			System.arraycopy(buckets[i], 0, result, n, counts[i]);
+			n += counts[i];
+		}
+		return result;
+	}
+
+	public int countBetween(LocalDate from, LocalDate to) {
+		int count = 0;
+		for (int i = firstDay(from), last = lastDay(to); i < last; i++) {
+			count += counts[i];
+		}
+		return count;
+	}
+
+	public void forEachBetween(LocalDate from, LocalDate to, LongConsumer action) {
+		for (int i = firstDay(from), last = lastDay(to); i < last; i++) {
+			long[] bucket = buckets[i];
+			for (int j = 0; j < counts[i]; j++) {
+				action.accept(bucket[j]);
+			}
+		}
+	}
+
+	// index of the first day on or after from
+	private int firstDay(LocalDate from) {
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(from));
+		return i < 0 ? -i - 1 : i;
+	}
+
+	// index after the last day on or before to
+	private int lastDay(LocalDate to) {
+		int i = Arrays.binarySearch(days, 0, dayCount, searchDay(to));
+		return i < 0 ? -i - 1 : i + 1;
+	}
+
+	private int insertDay(int i, int day) {
+		if (dayCount == days.length) {
+			int capacity = days.length * 2;
+			days = Arrays.copyOf(days, capacity);
+			buckets = Arrays.copyOf(buckets, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+		}
+		System.arraycopy(days, i, days, i + 1, dayCount - i);
+		System.arraycopy(buckets, i, buckets, i + 1, dayCount - i);
+		System.arraycopy(counts, i, counts, i + 1, dayCount - i);
+		days[i] = day;
+		buckets[i] = new long[INITIAL_BUCKET];
+		counts[i] = 0;
+		dayCount++;
+		return i;
+	}
+
+	private static int epochDay(LocalDate date) {
+		return Math.toIntExact(date.toEpochDay());
+	}
+
+	// range bounds such as LocalDate.MIN are clamped to the days that can be added
+	private static int searchDay(LocalDate date) {
+		long day = date.toEpochDay();
+		return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, day));
+	}
+
+}
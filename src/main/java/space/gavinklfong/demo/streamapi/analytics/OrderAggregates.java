@@ -0,0 +1,289 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.TreeSet;
+
+import org.springframework.stereotype.Component;
+
+import space.gavinklfong.demo.streamapi.collectors.LongListHashMap;
+import space.gavinklfong.demo.streamapi.collectors.LongLongHashMap;
+import space.gavinklfong.demo.streamapi.models.Money;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Materialized order and category aggregates: total price of the orders of
+ * each month, total price of each order, price statistics and most expensive
+ * product of each category, and a {@link LongDateIndex} of the orders by date. They are built once by
+ * {@link OrderAggregatesLoader} and then kept up to date by
+ * {@link AggregateEventListener} as orders, products and order products are
+ * written, so reads are lookups instead of scans.
+ * <p>
+ * Orders are kept in primitive maps keyed by id, and totals in cents so that
+ * adding and taking back prices does not drift. Orders without a date have a
+ * total but are left out of the monthly totals and the date index.
+ */
+@Component
+public class OrderAggregates {
+
+	private static final Comparator<PricedProduct> BY_PRICE = Comparator
+			.comparingDouble((PricedProduct p) -> p.price)
+			.thenComparingLong(p -> p.id);
+
+	// epoch day of the orders without a date
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private final Map<Long, PricedProduct> products = new HashMap<>();
+	private final LongLongHashMap orderCents = new LongLongHashMap();
+	private final LongLongHashMap orderDays = new LongLongHashMap();
+	private final LongListHashMap orderProducts = new LongListHashMap();
+	private final LongListHashMap ordersByProduct = new LongListHashMap();
+	private final LongLongHashMap centsByMonth = new LongLongHashMap();
+	private final Map<String, TreeSet<PricedProduct>> productsByCategory = new HashMap<>();
+	private final Map<String, Long> centsByCategory = new HashMap<>();
+	private final LongDateIndex ordersByDate = new LongDateIndex();
+	private volatile boolean loaded;
+
+	/**
+	 * Starts over from the given products, the orders are then added one by one
+	 * with {@link #orderSaved} and the load completed with {@link #loaded()}.
+	 */
+	public synchronized void rebuild(Collection<Product> products) {
+		loaded = false;
+		this.products.clear();
+		orderCents.clear();
+		orderDays.clear();
+		orderProducts.clear();
+		ordersByProduct.clear();
+		centsByMonth.clear();
+		productsByCategory.clear();
+		centsByCategory.clear();
+		ordersByDate.clear();
+		products.forEach(p -> productSaved(p.getId(), p.getCategory(), p.getPrice()));
+	}
+
+	public void loaded() {
+		loaded = true;
+	}
+
+	public boolean isLoaded() {
+		return loaded;
+	}
+
+	// reads
+
+	public synchronized double totalPrice(YearMonth month) {
+		return Money.ofCents(centsByMonth.get(monthKey(month), 0)).toDouble();
+	}
+
+	/** Total price of the orders from {@code from} to {@code to} inclusive. */
+	public synchronized double totalPrice(LocalDate from, LocalDate to) {
+		long[] total = new long[1];
+		ordersByDate.forEachBetween(from, to, id -> total[0] += orderCents.get(id, 0));
+		return Money.ofCents(total[0]).toDouble();
+	}
+
+	public synchronized long[] orderIds(LocalDate date) {
+		return orderIds(date, date);
+	}
+
+	/** Ids of the orders from {@code from} to {@code to} inclusive, by date. */
+	public synchronized long[] orderIds(LocalDate from, LocalDate to) {
+		return ordersByDate.between(from, to);
+	}
+
+	public synchronized OptionalDouble orderTotal(long orderId) {
+		return orderCents.containsKey(orderId)
+				? OptionalDouble.of(Money.ofCents(orderCents.get(orderId, 0)).toDouble())
+				: OptionalDouble.empty();
+	}
+
+	public synchronized DoubleSummaryStatistics categoryStatistics(String category) {
+		TreeSet<PricedProduct> categoryProducts = productsByCategory.get(category);
+		if (categoryProducts == null || categoryProducts.isEmpty()) {
+			return new DoubleSummaryStatistics();
+		}
+		return new DoubleSummaryStatistics(categoryProducts.size(),
+				categoryProducts.first().price,
+				categoryProducts.last().price,
+				Money.ofCents(centsByCategory.get(category)).toDouble());
+	}
+
+	public synchronized Optional<Long> mostExpensiveProduct(String category) {
+		TreeSet<PricedProduct> categoryProducts = productsByCategory.get(category);
+		return categoryProducts == null || categoryProducts.isEmpty()
+				? Optional.empty()
+				: Optional.of(categoryProducts.last().id);
+	}
+
+	public synchronized Map<String, Long> mostExpensiveProductByCategory() {
+		Map<String, Long> result = new LinkedHashMap<>();
+		productsByCategory.forEach((category, categoryProducts) -> {
+			if (!categoryProducts.isEmpty()) {
+				result.put(category, categoryProducts.last().id);
+			}
+		});
+		return result;
+	}
+
+	// writes
+
+	public synchronized void productSaved(long id, String category, double price) {
+		PricedProduct previous = products.get(id);
+		if (previous != null) {
+			removeFromCategory(previous);
+		}
+		PricedProduct product = new PricedProduct(id, category, price);
+		products.put(id, product);
+		productsByCategory.computeIfAbsent(category, c -> new TreeSet<>(BY_PRICE)).add(product);
+		centsByCategory.merge(category, product.cents, Long::sum);
+
+		long delta = previous == null ? 0 : product.cents - previous.cents;
+		if (delta != 0) {
+			ordersByProduct.forEachValue(id, orderId -> addToOrder(orderId, delta));
+		}
+	}
+
+	/**
+	 * Multiplies the price of every product of the category by {@code factor},
+	 * rounded like the bulk update that did so in the database.
+	 */
+	public synchronized void categoryRepriced(String category, BigDecimal factor) {
+		TreeSet<PricedProduct> products = productsByCategory.get(category);
+		if (products == null) {
+			return;
+		}
+		for (PricedProduct product : List.copyOf(products)) {
+			productSaved(product.id, category, Money.ofCents(Money.times(product.cents, factor)).toDouble());
+		}
+	}
+
+	public synchronized void productRemoved(long id) {
+		PricedProduct product = products.remove(id);
+		if (product == null) {
+			return;
+		}
+		removeFromCategory(product);
+		for (long orderId : ordersByProduct.remove(id)) {
+			orderProducts.removeValue(orderId, id);
+			addToOrder(orderId, -product.cents);
+		}
+	}
+
+	/**
+	 * Adds or replaces an order, the product ids must be distinct.
+	 * {@code productIds} null keeps the products already known for the order,
+	 * e.g. when only its date changed.
+	 */
+	public synchronized void orderSaved(long id, LocalDate orderDate, long[] productIds) {
+		long[] previousProducts = null;
+		if (orderCents.containsKey(id)) {
+			long previousDay = orderDays.remove(id, NO_DATE);
+			addToMonth(previousDay, -orderCents.remove(id, 0));
+			if (previousDay != NO_DATE) {
+				ordersByDate.remove(LocalDate.ofEpochDay(previousDay), id);
+			}
+			previousProducts = orderProducts.remove(id);
+			if (productIds != null) {
+				for (long productId : previousProducts) {
+					ordersByProduct.removeValue(productId, id);
+				}
+			}
+		}
+
+		long cents = 0;
+		if (productIds == null) {
+			if (previousProducts != null) {
+				for (long productId : previousProducts) {
+					cents += priceInCents(productId);
+					orderProducts.add(id, productId);
+				}
+			}
+		} else {
+			for (long productId : productIds) {
+				cents += priceInCents(productId);
+				orderProducts.add(id, productId);
+				ordersByProduct.add(productId, id);
+			}
+		}
+		long day = orderDate == null ? NO_DATE : orderDate.toEpochDay();
+		orderCents.put(id, cents);
+		orderDays.put(id, day);
+		addToMonth(day, cents);
+		if (orderDate != null) {
+			ordersByDate.add(orderDate, id);
+		}
+	}
+
+	public synchronized void orderRemoved(long id) {
+		if (!orderCents.containsKey(id)) {
+			return;
+		}
+		for (long productId : orderProducts.remove(id)) {
+			ordersByProduct.removeValue(productId, id);
+		}
+		long day = orderDays.remove(id, NO_DATE);
+		addToMonth(day, -orderCents.remove(id, 0));
+		if (day != NO_DATE) {
+			ordersByDate.remove(LocalDate.ofEpochDay(day), id);
+		}
+	}
+
+	public void orderSaved(Order order) {
+		orderSaved(order.getId(), order.getOrderDate(),
+				order.getProducts().stream().mapToLong(Product::getId).distinct().toArray());
+	}
+
+	private long priceInCents(long productId) {
+		PricedProduct product = products.get(productId);
+		return product == null ? 0 : product.cents;
+	}
+
+	private void addToOrder(long orderId, long delta) {
+		orderCents.add(orderId, delta);
+		addToMonth(orderDays.get(orderId, NO_DATE), delta);
+	}
+
+	private void addToMonth(long day, long delta) {
+		if (day != NO_DATE) {
+			centsByMonth.add(monthKey(YearMonth.from(LocalDate.ofEpochDay(day))), delta);
+		}
+	}
+
+	private static long monthKey(YearMonth month) {
+		return month.getYear() * 12L + month.getMonthValue() - 1;
+	}
+
+	private void removeFromCategory(PricedProduct product) {
+		productsByCategory.get(product.category).remove(product);
+		centsByCategory.merge(product.category, -product.cents, Long::sum);
+	}
+
+	private static class PricedProduct {
+
+		private final long id;
+		private final String category;
+		private final double price;
+		private final long cents;
+
+		PricedProduct(long id, String category, double price) {
+			this.id = id;
+			this.category = category;
+			this.price = price;
+			this.cents = Money.toCents(price);
+		}
+
+	}
+
+}
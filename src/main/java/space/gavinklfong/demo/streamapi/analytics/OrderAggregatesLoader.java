@@ -0,0 +1,48 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.stream.Stream;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Computes the aggregates from the database once the application is ready,
+ * orders are streamed so the load runs in constant memory.
+ */
+@Slf4j
+@Component
+public class OrderAggregatesLoader {
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void load() {
+		long startTime = System.currentTimeMillis();
+
+		aggregates.rebuild(productRepo.findAll());
+		try (Stream<Order> orders = orderRepo.streamAll()) {
+			orders.forEach(aggregates::orderSaved);
+		}
+		aggregates.loaded();
+
+		long endTime = System.currentTimeMillis();
+		log.info(String.format("order aggregates loaded in %1$d ms", (endTime - startTime)));
+	}
+
+}
@@ -0,0 +1,141 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Runs the exercise pipelines as parallel streams on a dedicated
+ * ForkJoinPool, so they don't compete with other users of the common pool.
+ * A parallel stream started from a task of this pool forks into this pool.
+ *
+ * The entities passed in must be fully loaded (e.g. with the fetch plan
+ * methods of OrderRepo), the pipelines run on the pool threads and must not
+ * trigger lazy loading.
+ *
+ * Each named query records its latency in {@value #QUERIES}, also tagged
+ * with the exception of a failed query, the number of entities it scans in
+ * {@value #ROWS_SCANNED} and the size of its result in
+ * {@value #ROWS_RETURNED}, tagged with the query name.
+ */
+@Component
+public class ParallelQueryExecutor {
+
+	public static final String QUERIES = "analytics.queries";
+	public static final String ROWS_SCANNED = "analytics.rows.scanned";
+	public static final String ROWS_RETURNED = "analytics.rows.returned";
+
+	private final ForkJoinPool pool;
+	private final MeterRegistry registry;
+
+	public ParallelQueryExecutor(int parallelism) {
+		this(parallelism, Metrics.globalRegistry);
+	}
+
+	@Autowired
+	public ParallelQueryExecutor(@Value("${analytics.parallelism:0}") int parallelism, MeterRegistry registry) {
+		this.registry = registry;
+		this.pool = new ForkJoinPool(
+				parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors(),
+				pool -> {
+					ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+					thread.setName("analytics-" + thread.getPoolIndex());
+					return thread;
+				},
+				null,
+				false);
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	/** Runs the query on the analytics pool and waits for its result. */
+	public <T> T execute(Supplier<T> query) {
+		return pool.submit(query::get).join();
+	}
+
+	public Map<Customer, List<Order>> ordersByCustomer(Collection<Order> orders) {
+		return execute("ordersByCustomer", orders, Map::size, () -> orders.parallelStream()
+				.filter(order -> order.getCustomer() != null)
+				.collect(Collectors.groupingByConcurrent(Order::getCustomer)));
+	}
+
+	public Map<Long, List<Long>> orderIdsByCustomerId(Collection<Order> orders) {
+		return execute("orderIdsByCustomerId", orders, Map::size, () -> orders.parallelStream()
+				.filter(order -> order.getCustomer() != null)
+				.collect(Collectors.groupingByConcurrent(
+						order -> order.getCustomer().getId(),
+						Collectors.mapping(Order::getId, Collectors.toList()))));
+	}
+
+	public Map<Long, Double> orderTotals(Collection<Order> orders) {
+		return execute("orderTotals", orders, Map::size, () -> orders.parallelStream()
+				.collect(Collectors.toConcurrentMap(
+						Order::getId,
+						order -> order.getProducts().stream()
+								.mapToDouble(Product::getPrice).sum())));
+	}
+
+	public Map<String, Optional<Product>> mostExpensiveProductByCategory(Collection<Product> products) {
+		return execute("mostExpensiveProductByCategory", products, Map::size, () -> products.parallelStream()
+				.collect(Collectors.groupingByConcurrent(
+						Product::getCategory,
+						Collectors.maxBy(Comparator.comparing(Product::getPrice)))));
+	}
+
+	/** Total price of the orders placed between the dates, inclusive. */
+	public double totalPriceBetween(Collection<Order> orders, LocalDate from, LocalDate to) {
+		return execute("totalPriceBetween", orders, total -> 1, () -> orders.parallelStream()
+				.filter(o -> !o.getOrderDate().isBefore(from) && !o.getOrderDate().isAfter(to))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum());
+	}
+
+	private <T> T execute(String name, Collection<?> input, ToIntFunction<T> rows, Supplier<T> query) {
+		Timer.Sample sample = Timer.start(registry);
+		String exception = "none";
+		T result;
+		try {
+			result = execute(query);
+		} catch (RuntimeException | Error e) {
+			exception = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			sample.stop(Timer.builder(QUERIES).tag("query", name).tag("exception", exception).register(registry));
+		}
+		DistributionSummary.builder(ROWS_SCANNED).tag("query", name).register(registry).record(input.size());
+		DistributionSummary.builder(ROWS_RETURNED).tag("query", name).register(registry).record(rows.applyAsInt(result));
+		return result;
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+}
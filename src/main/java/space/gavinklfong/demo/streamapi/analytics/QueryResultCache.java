@@ -0,0 +1,155 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
+
+/**
+ * Results of the analytics queries, keyed by query name and parameters:
+ *
+ * <pre>
+ * cache.get("productsPricedAbove", Set.of(Product.class), () -> ..., "Books", 100D);
+ * </pre>
+ *
+ * The cache is bounded to {@code analytics.result-cache.maximum-size}
+ * entries and evicts with Caffeine's W-TinyLFU policy, so results asked for
+ * often are kept over ones asked for once. A result is computed once for
+ * concurrent identical requests, the other callers wait for it. The cache
+ * holds futures: the first caller puts an incomplete one and computes the
+ * result on its own thread, so no lock of the cache is held while a query
+ * runs and requests for other keys are never blocked by it.
+ * <p>
+ * Each result lists the entity classes it is computed from. A committed
+ * write of one of them ({@link #entityWritten}) drops the results computed
+ * from it, and a result whose computation was still running during the write
+ * is dropped on its next read. Results are shared, callers must not modify
+ * them. The cache statistics are published as {@value #CACHE_NAME} cache
+ * meters.
+ */
+@Component
+public class QueryResultCache {
+
+	public static final String CACHE_NAME = "analytics.results";
+
+	private final AsyncCache<Key, Entry> cache;
+	private final AtomicLong generation = new AtomicLong();
+	private final Map<Class<?>, Long> lastWrites = new ConcurrentHashMap<>();
+
+	public QueryResultCache(long maximumSize) {
+		this(maximumSize, Metrics.globalRegistry);
+	}
+
+	@Autowired
+	public QueryResultCache(@Value("${analytics.result-cache.maximum-size:1000}") long maximumSize,
+			MeterRegistry registry) {
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(maximumSize)
+				.recordStats()
+				.buildAsync();
+		CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+	}
+
+	@SuppressWarnings("unchecked")
+	public <T> T get(String query, Set<Class<?>> dependsOn, Supplier<T> compute, Object... parameters) {
+		Key key = new Key(query, Collections.unmodifiableList(Arrays.asList(parameters.clone())));
+		while (true) {
+			CompletableFuture<Entry> created = new CompletableFuture<>();
+			CompletableFuture<Entry> future = cache.get(key, (k, executor) -> created);
+			if (future == created) {
+				compute(created, dependsOn, compute);
+			}
+			Entry entry = AsyncRepositoryFacade.await(future);
+			if (!isStale(entry)) {
+				return (T) entry.result;
+			}
+			cache.asMap().remove(key, future);
+			// the caller that computed a stale result gets it, it was read after the call started
+			if (future == created) {
+				return (T) entry.result;
+			}
+		}
+	}
+
+	// runs on the calling thread, after the future is in the cache, so no lock is held meanwhile
+	private void compute(CompletableFuture<Entry> future, Set<Class<?>> dependsOn, Supplier<?> compute) {
+		long started = generation.get();
+		try {
+			future.complete(new Entry(started, dependsOn, compute.get()));
+		} catch (RuntimeException | Error e) {
+			// a failed future is removed from the cache, the waiting callers get the exception
+			future.completeExceptionally(e);
+		}
+	}
+
+	/** Drops the results computed from entities of the class. */
+	public void entityWritten(Class<?> entityClass) {
+		lastWrites.put(entityClass, generation.incrementAndGet());
+		// results still being computed are caught by isStale when they are read
+		cache.asMap().values().removeIf(future -> future.isDone() && !future.isCompletedExceptionally()
+				&& future.join().dependsOn.contains(entityClass));
+	}
+
+	public void clear() {
+		cache.synchronous().invalidateAll();
+	}
+
+	public long size() {
+		cache.synchronous().cleanUp();
+		return cache.synchronous().estimatedSize();
+	}
+
+	// computed from a read that started before a write to one of its entity classes
+	private boolean isStale(Entry entry) {
+		for (Class<?> entityClass : entry.dependsOn) {
+			if (lastWrites.getOrDefault(entityClass, 0L) > entry.generation) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@EqualsAndHashCode
+	@AllArgsConstructor
+	private static final class Key {
+
+		private final String query;
+		private final List<Object> parameters;
+
+	}
+
+	private static final class Entry {
+
+		private final long generation;
+		private final Set<Class<?>> dependsOn;
+		private final Object result;
+
+		private Entry(long generation, Set<Class<?>> dependsOn, Object result) {
+			this.generation = generation;
+			this.dependsOn = dependsOn;
+			this.result = result;
+		}
+
+	}
+
+}
@@ -0,0 +1,88 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.proxy.HibernateProxyHelper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.ProductPricesChanged;
+
+/**
+ * Invalidates the {@link QueryResultCache} on entity writes, once the
+ * transaction commits. A change of a collection (e.g. the products of an
+ * order) counts as a write of its owner, bulk price updates as a write of
+ * the products.
+ */
+@Component
+public class ResultCacheEventListener extends EntityEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	@Autowired
+	private QueryResultCache resultCache;
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		written(event.getEntity());
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		written(event.getEntity());
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		written(event.getEntity());
+	}
+
+	@TransactionalEventListener
+	public void onProductPricesChanged(ProductPricesChanged event) {
+		resultCache.entityWritten(Product.class);
+	}
+
+	@Override
+	protected void collectionChanged(AbstractCollectionEvent event) {
+		Object owner = event.getAffectedOwnerOrNull();
+		if (owner != null) {
+			written(owner);
+		}
+	}
+
+	// the classes written in a transaction are collected, so a batch of writes invalidates once per class
+	@SuppressWarnings("unchecked")
+	private void written(Object entity) {
+		Class<?> entityClass = HibernateProxyHelper.getClassWithoutInitializingProxy(entity);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			resultCache.entityWritten(entityClass);
+			return;
+		}
+		Set<Class<?>> written = (Set<Class<?>>) TransactionSynchronizationManager.getResource(this);
+		if (written == null) {
+			Set<Class<?>> classes = new HashSet<>();
+			TransactionSynchronizationManager.bindResource(this, classes);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(ResultCacheEventListener.this);
+					if (status == STATUS_COMMITTED) {
+						classes.forEach(resultCache::entityWritten);
+					}
+				}
+			});
+			written = classes;
+		}
+		written.add(entityClass);
+	}
+
+}
@@ -0,0 +1,45 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+/**
+ * Mutable {@code double} accumulator with Kahan-Babuska (Neumaier)
+ * compensation, the rounding error of each addition is carried separately so
+ * long sums of prices do not drift.
+ */
+public class CompensatedSum {
+
+	private double sum;
+
+	private double compensation;
+
+	// plain sum, keeps infinities and NaN which the compensation would turn into NaN
+	private double simpleSum;
+
+	public CompensatedSum add(double value) {
+		double t = sum + value;
+		if (Math.abs(sum) >= Math.abs(value)) {
+			compensation += (sum - t) + value;
+		} else {
+			compensation += (value - t) + sum;
+		}
+		sum = t;
+		simpleSum += value;
+		return this;
+	}
+
+	public CompensatedSum combine(CompensatedSum other) {
+		double combinedSimpleSum = simpleSum + other.simpleSum;
+		add(other.sum);
+		add(other.compensation);
+		simpleSum = combinedSimpleSum;
+		return this;
+	}
+
+	public double sum() {
+		double result = sum + compensation;
+		if (Double.isNaN(result) && Double.isInfinite(simpleSum)) {
+			return simpleSum;
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,50 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+/**
+ * Sizing and hash spreading shared by the open-addressing maps.
+ */
+final class Hashing {
+
+	// resize once the table is more than half full, keeps probe chains short
+	private static final int MAX_LOAD_PERCENT = 50;
+
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private Hashing() {
+	}
+
+	/**
+	 * Murmur3 finalizer, sequential ids would otherwise fill consecutive slots.
+	 */
+	static int mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	static int capacityFor(int expectedSize, int minCapacity) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("expectedSize must not be negative: " + expectedSize);
+		}
+		long required = (long) expectedSize * 100 / MAX_LOAD_PERCENT + 1;
+		int capacity = minCapacity;
+		while (capacity < required && capacity < MAX_CAPACITY) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	static boolean needsResize(int size, int capacity) {
+		if ((long) size * 100 <= (long) capacity * MAX_LOAD_PERCENT) {
+			return false;
+		}
+		if (capacity >= MAX_CAPACITY) {
+			throw new IllegalStateException("Map is full: " + size + " entries");
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,201 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+/**
+ * Open-addressing {@code long -> double} map with linear probing, keys and
+ * values are kept in primitive arrays so neither is boxed. {@link #add} is
+ * compensated as in {@link CompensatedSum}, the rounding error of each value
+ * is kept in a parallel array so long sums do not drift.
+ */
+public class LongDoubleHashMap {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+
+	private double[] values;
+
+	private double[] compensations;
+
+	private boolean[] used;
+
+	private int size;
+
+	public LongDoubleHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongDoubleHashMap(int expectedSize) {
+		allocate(Hashing.capacityFor(expectedSize, MIN_CAPACITY));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return used[indexOf(key)];
+	}
+
+	public double get(long key, double defaultValue) {
+		int i = indexOf(key);
+		return used[i] ? value(i) : defaultValue;
+	}
+
+	public void put(long key, double value) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			i = insert(i, key);
+		}
+		values[i] = value;
+		compensations[i] = 0;
+	}
+
+	/**
+	 * Adds {@code delta} to the value of {@code key}, absent keys start at zero.
+	 */
+	public void add(long key, double delta) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			i = insert(i, key);
+		}
+		double sum = values[i];
+		double t = sum + delta;
+		// once infinite or NaN the plain sum is the result, the compensation would turn it into NaN
+		if (Double.isFinite(t)) {
+			compensations[i] += Math.abs(sum) >= Math.abs(delta) ? (sum - t) + delta : (delta - t) + sum;
+		}
+		values[i] = t;
+	}
+
+	public long[] keys() {
+		long[] result = new long[size];
+		int n = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				result[n++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				consumer.accept(keys[i], value(i));
+			}
+		}
+	}
+
+	/**
+	 * Adds every entry of {@code other} to this map, with its compensation.
+	 */
+	public LongDoubleHashMap addAll(LongDoubleHashMap other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			if (other.used[i]) {
+				add(other.keys[i], other.values[i]);
+				add(other.keys[i], other.compensations[i]);
+			}
+		}
+		return this;
+	}
+
+	private double value(int i) {
+		double value = values[i];
+		return Double.isFinite(value) ? value + compensations[i] : value;
+	}
+
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int i = Hashing.mix(key) & mask;
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private int insert(int i, long key) {
+		if (Hashing.needsResize(size + 1, keys.length)) {
+			rehash(keys.length * 2);
+			i = indexOf(key);
+		}
+		keys[i] = key;
+		used[i] = true;
+		size++;
+		return i;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		double[] oldValues = values;
+		double[] oldCompensations = compensations;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = indexOf(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+				compensations[j] = oldCompensations[i];
+				used[j] = true;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new double[capacity];
+		compensations = new double[capacity];
+		used = new boolean[capacity];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		forEach((key, value) -> builder.append(builder.length() > 1 ? ", " : "").append(key).append('=').append(value));
+		return builder.append('}').toString();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof LongDoubleHashMap)) {
+			return false;
+		}
+		LongDoubleHashMap other = (LongDoubleHashMap) o;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i] && !(other.containsKey(keys[i])
+					&& Double.compare(value(i), other.get(keys[i], 0)) == 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int hashCode() {
+		int hash = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				hash += Long.hashCode(keys[i]) ^ Double.hashCode(value(i));
+			}
+		}
+		return hash;
+	}
+
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		void accept(long key, double value);
+
+	}
+
+}
@@ -0,0 +1,249 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing {@code long -> long[]} multimap with linear probing, the
+ * values of each key are appended to a growable primitive array. Removed
+ * keys are filled by shifting the following entries of the probe chain back.
+ */
+public class LongListHashMap {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private static final int MIN_LIST_CAPACITY = 4;
+
+	private static final long[] EMPTY = new long[0];
+
+	private long[] keys;
+
+	private long[][] lists;
+
+	private int[] counts;
+
+	private boolean[] used;
+
+	private int size;
+
+	public LongListHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongListHashMap(int expectedSize) {
+		allocate(Hashing.capacityFor(expectedSize, MIN_CAPACITY));
+	}
+
+	/**
+	 * Number of keys.
+	 */
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return used[indexOf(key)];
+	}
+
+	/**
+	 * Values of {@code key} in insertion order, empty when the key is absent.
+	 */
+	public long[] get(long key) {
+		int i = indexOf(key);
+		return used[i] ? Arrays.copyOf(lists[i], counts[i]) : EMPTY;
+	}
+
+	public void add(long key, long value) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			i = insert(i, key);
+		}
+		long[] list = lists[i];
+		if (counts[i] == list.length) {
+			list = lists[i] = Arrays.copyOf(list, list.length * 2);
+		}
+		list[counts[i]++] = value;
+	}
+
+	/**
+	 * Calls {@code action} with each value of {@code key}, without copying them.
+	 */
+	public void forEachValue(long key, LongConsumer action) {
+		int i = indexOf(key);
+		if (used[i]) {
+			long[] list = lists[i];
+			for (int n = 0; n < counts[i]; n++) {
+				action.accept(list[n]);
+			}
+		}
+	}
+
+	/**
+	 * @return the values removed with the key, empty when the key is absent
+	 */
+	public long[] remove(long key) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			return EMPTY;
+		}
+		long[] values = Arrays.copyOf(lists[i], counts[i]);
+		shiftBack(i);
+		size--;
+		return values;
+	}
+
+	/**
+	 * Removes the first occurrence of {@code value} from the values of
+	 * {@code key}, and the key once it has no values left.
+	 */
+	public boolean removeValue(long key, long value) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			return false;
+		}
+		long[] list = lists[i];
+		for (int n = 0; n < counts[i]; n++) {
+			if (list[n] == value) {
+				System.arraycopy(list, n + 1, list, n, counts[i] - n - 1);
+				if (--counts[i] == 0) {
+					shiftBack(i);
+					size--;
+				}
+				return true;
+			}
+		}
+		return false;
+	}
+
+	public void clear() {
+		Arrays.fill(lists, null);
+		Arrays.fill(counts, 0);
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	public long[] keys() {
+		long[] result = new long[size];
+		int n = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				result[n++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Visits each key with its values, the array is a copy owned by the consumer.
+	 */
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				consumer.accept(keys[i], Arrays.copyOf(lists[i], counts[i]));
+			}
+		}
+	}
+
+	/**
+	 * Appends the values of {@code other} after the values of this map.
+	 */
+	public LongListHashMap addAll(LongListHashMap other) {
+		for (int i = 0; i < other.keys.length; i++) {
+			if (other.used[i]) {
+				long key = other.keys[i];
+				for (int n = 0; n < other.counts[i]; n++) {
+					add(key, other.lists[i][n]);
+				}
+			}
+		}
+		return this;
+	}
+
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int i = Hashing.mix(key) & mask;
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private int insert(int i, long key) {
+		if (Hashing.needsResize(size + 1, keys.length)) {
+			rehash(keys.length * 2);
+			i = indexOf(key);
+		}
+		keys[i] = key;
+		lists[i] = new long[MIN_LIST_CAPACITY];
+		counts[i] = 0;
+		used[i] = true;
+		size++;
+		return i;
+	}
+
+	// moves back the entries after the gap that would no longer be found past it
+	private void shiftBack(int gap) {
+		int mask = keys.length - 1;
+		for (int i = (gap + 1) & mask; used[i]; i = (i + 1) & mask) {
+			int home = Hashing.mix(keys[i]) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				lists[gap] = lists[i];
+				counts[gap] = counts[i];
+				gap = i;
+			}
+		}
+		lists[gap] = null;
+		counts[gap] = 0;
+		used[gap] = false;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[][] oldLists = lists;
+		int[] oldCounts = counts;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = indexOf(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				lists[j] = oldLists[i];
+				counts[j] = oldCounts[i];
+				used[j] = true;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		lists = new long[capacity][];
+		counts = new int[capacity];
+		used = new boolean[capacity];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				builder.append(builder.length() > 1 ? ", " : "")
+						.append(keys[i]).append('=')
+						.append(Arrays.toString(Arrays.copyOf(lists[i], counts[i])));
+			}
+		}
+		return builder.append('}').toString();
+	}
+
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		void accept(long key, long[] values);
+
+	}
+
+}
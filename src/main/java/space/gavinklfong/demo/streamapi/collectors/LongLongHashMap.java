@@ -0,0 +1,175 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> long} map with linear probing, keys and
+ * values are kept in primitive arrays so neither is boxed. Removed entries
+ * are filled by shifting the following entries of the probe chain back, so
+ * no tombstones are left behind.
+ */
+public class LongLongHashMap {
+
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+
+	private long[] values;
+
+	private boolean[] used;
+
+	private int size;
+
+	public LongLongHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	public LongLongHashMap(int expectedSize) {
+		allocate(Hashing.capacityFor(expectedSize, MIN_CAPACITY));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		return used[indexOf(key)];
+	}
+
+	public long get(long key, long defaultValue) {
+		int i = indexOf(key);
+		return used[i] ? values[i] : defaultValue;
+	}
+
+	public void put(long key, long value) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			i = insert(i, key);
+		}
+		values[i] = value;
+	}
+
+	/**
+	 * Adds {@code delta} to the value of {@code key}, absent keys start at zero.
+	 */
+	public void add(long key, long delta) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			i = insert(i, key);
+		}
+		values[i] += delta;
+	}
+
+	/**
+	 * @return the value removed, {@code defaultValue} when the key is absent
+	 */
+	public long remove(long key, long defaultValue) {
+		int i = indexOf(key);
+		if (!used[i]) {
+			return defaultValue;
+		}
+		long value = values[i];
+		shiftBack(i);
+		size--;
+		return value;
+	}
+
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	public long[] keys() {
+		long[] result = new long[size];
+		int n = 0;
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				result[n++] = keys[i];
+			}
+		}
+		return result;
+	}
+
+	public void forEach(EntryConsumer consumer) {
+		for (int i = 0; i < keys.length; i++) {
+			if (used[i]) {
+				consumer.accept(keys[i], values[i]);
+			}
+		}
+	}
+
+	private int indexOf(long key) {
+		int mask = keys.length - 1;
+		int i = Hashing.mix(key) & mask;
+		while (used[i] && keys[i] != key) {
+			i = (i + 1) & mask;
+		}
+		return i;
+	}
+
+	private int insert(int i, long key) {
+		if (Hashing.needsResize(size + 1, keys.length)) {
+			rehash(keys.length * 2);
+			i = indexOf(key);
+		}
+		keys[i] = key;
+		values[i] = 0;
+		used[i] = true;
+		size++;
+		return i;
+	}
+
+	// moves back the entries after the gap that would no longer be found past it
+	private void shiftBack(int gap) {
+		int mask = keys.length - 1;
+		for (int i = (gap + 1) & mask; used[i]; i = (i + 1) & mask) {
+			int home = Hashing.mix(keys[i]) & mask;
+			if (((i - home) & mask) >= ((i - gap) & mask)) {
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+		}
+		used[gap] = false;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		boolean[] oldUsed = used;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldUsed[i]) {
+				int j = indexOf(oldKeys[i]);
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+				used[j] = true;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		used = new boolean[capacity];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("{");
+		forEach((key, value) -> builder.append(builder.length() > 1 ? ", " : "").append(key).append('=').append(value));
+		return builder.append('}').toString();
+	}
+
+	@FunctionalInterface
+	public interface EntryConsumer {
+
+		void accept(long key, long value);
+
+	}
+
+}
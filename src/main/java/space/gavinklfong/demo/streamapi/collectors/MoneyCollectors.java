@@ -0,0 +1,62 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import java.util.Optional;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+import space.gavinklfong.demo.streamapi.models.Money;
+
+/**
+ * Exact {@link Money} aggregates over amounts in cents, e.g.
+ * {@code collect(MoneyCollectors.summing(Product::getPriceInCents))}. The
+ * running totals are plain {@code long}s, overflow throws
+ * {@link ArithmeticException} instead of wrapping.
+ */
+public final class MoneyCollectors {
+
+	private MoneyCollectors() {
+	}
+
+	public static <T> Collector<T, ?, Money> summing(ToLongFunction<? super T> cents) {
+		return Collector.of(
+				() -> new long[1],
+				(total, element) -> total[0] = Math.addExact(total[0], cents.applyAsLong(element)),
+				(left, right) -> {
+					left[0] = Math.addExact(left[0], right[0]);
+					return left;
+				},
+				total -> Money.ofCents(total[0]));
+	}
+
+	/**
+	 * Average rounded half-even to the cent, empty for an empty stream.
+	 */
+	public static <T> Collector<T, ?, Optional<Money>> averaging(ToLongFunction<? super T> cents) {
+		return Collector.of(
+				() -> new long[2],
+				(totalAndCount, element) -> {
+					totalAndCount[0] = Math.addExact(totalAndCount[0], cents.applyAsLong(element));
+					totalAndCount[1]++;
+				},
+				(left, right) -> {
+					left[0] = Math.addExact(left[0], right[0]);
+					left[1] += right[1];
+					return left;
+				},
+				totalAndCount -> totalAndCount[1] == 0
+						? Optional.empty()
+						: Optional.of(Money.ofCents(Money.divideHalfEven(totalAndCount[0], totalAndCount[1]))));
+	}
+
+	/**
+	 * Total after taking {@code percent} per cent off every element, each
+	 * discounted amount is rounded to the cent before it is added.
+	 */
+	public static <T> Collector<T, ?, Money> summingDiscounted(ToLongFunction<? super T> cents, int percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException("percent must be between 0 and 100: " + percent);
+		}
+		return summing(element -> Money.percentOff(cents.applyAsLong(element), percent));
+	}
+
+}
@@ -0,0 +1,50 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Collectors keyed by {@code long} ids that accumulate into primitive
+ * containers, no {@code Long} or {@code Double} is allocated per element.
+ */
+public final class PrimitiveCollectors {
+
+	private PrimitiveCollectors() {
+	}
+
+	/**
+	 * Compensated sum of {@code mapper}, the only boxing is the result.
+	 */
+	public static <T> Collector<T, ?, Double> summingDouble(ToDoubleFunction<? super T> mapper) {
+		return Collector.of(
+				CompensatedSum::new,
+				(sum, element) -> sum.add(mapper.applyAsDouble(element)),
+				CompensatedSum::combine,
+				CompensatedSum::sum);
+	}
+
+	/**
+	 * Sums {@code valueMapper} per {@code keyMapper} key, e.g. order id to order total.
+	 */
+	public static <T> Collector<T, ?, LongDoubleHashMap> groupingBySum(ToLongFunction<? super T> keyMapper,
+			ToDoubleFunction<? super T> valueMapper) {
+		return Collector.of(
+				LongDoubleHashMap::new,
+				(map, element) -> map.add(keyMapper.applyAsLong(element), valueMapper.applyAsDouble(element)),
+				LongDoubleHashMap::addAll);
+	}
+
+	/**
+	 * Collects {@code valueMapper} per {@code keyMapper} key in encounter order,
+	 * e.g. customer id to order ids.
+	 */
+	public static <T> Collector<T, ?, LongListHashMap> groupingByLong(ToLongFunction<? super T> keyMapper,
+			ToLongFunction<? super T> valueMapper) {
+		return Collector.of(
+				LongListHashMap::new,
+				(map, element) -> map.add(keyMapper.applyAsLong(element), valueMapper.applyAsLong(element)),
+				LongListHashMap::addAll);
+	}
+
+}
@@ -0,0 +1,174 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collector;
+
+/**
+ * Bounded-heap collectors keeping the first {@code k} elements of a stream
+ * in comparator order, a replacement for {@code sorted(comparator).limit(k)}
+ * that needs O(n log k) time and O(k) space instead of sorting the whole
+ * stream.
+ * <p>
+ * Ties are broken by encounter order, so the result is the same list the
+ * sort-then-limit pipeline returns, for sequential and parallel streams.
+ */
+public final class TopK {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private TopK() {
+	}
+
+	/**
+	 * Same result as {@code sorted(comparator).limit(k)}.
+	 */
+	public static <T> Collector<T, ?, List<T>> least(int k, Comparator<? super T> comparator) {
+		if (k < 0) {
+			throw new IllegalArgumentException("k must not be negative: " + k);
+		}
+		Objects.requireNonNull(comparator, "comparator");
+		return Collector.of(
+				() -> new Heap<T>(k, comparator),
+				Heap::add,
+				Heap::merge,
+				Heap::toList);
+	}
+
+	/**
+	 * Same result as {@code sorted(comparator.reversed()).limit(k)}.
+	 */
+	public static <T> Collector<T, ?, List<T>> greatest(int k, Comparator<? super T> comparator) {
+		return least(k, comparator.reversed());
+	}
+
+	/**
+	 * Max-heap of the {@code k} least elements seen so far, the root is the
+	 * element to evict next. Each element carries its encounter sequence so
+	 * that later elements lose ties.
+	 */
+	static final class Heap<T> {
+
+		private final int k;
+
+		private final Comparator<? super T> comparator;
+
+		private Object[] items;
+
+		private long[] sequences;
+
+		private int size;
+
+		private long seen;
+
+		Heap(int k, Comparator<? super T> comparator) {
+			this.k = k;
+			this.comparator = comparator;
+			int capacity = Math.min(k, INITIAL_CAPACITY);
+			this.items = new Object[capacity];
+			this.sequences = new long[capacity];
+		}
+
+		void add(T item) {
+			offer(item, seen++);
+		}
+
+		Heap<T> merge(Heap<T> other) {
+			// the other heap holds the later part of the stream
+			for (int i = 0; i < other.size; i++) {
+				offer(other.item(i), seen + other.sequences[i]);
+			}
+			seen += other.seen;
+			return this;
+		}
+
+		List<T> toList() {
+			Object[] sorted = new Object[size];
+			for (int n = size - 1; n >= 0; n--) {
+				sorted[n] = items[0];
+				size--;
+				items[0] = items[size];
+				sequences[0] = sequences[size];
+				items[size] = null;
+				siftDown(0);
+			}
+			@SuppressWarnings("unchecked")
+			List<T> result = (List<T>) new ArrayList<>(Arrays.asList(sorted));
+			return result;
+		}
+
+		private void offer(T item, long sequence) {
+			if (size < k) {
+				if (size == items.length) {
+					int capacity = (int) Math.min(k, 2L * items.length);
+					items = Arrays.copyOf(items, capacity);
+					sequences = Arrays.copyOf(sequences, capacity);
+				}
+				items[size] = item;
+				sequences[size] = sequence;
+				siftUp(size++);
+			} else if (k > 0 && compare(item, sequence, 0) < 0) {
+				items[0] = item;
+				sequences[0] = sequence;
+				siftDown(0);
+			}
+		}
+
+		private void siftUp(int i) {
+			while (i > 0) {
+				int parent = (i - 1) >>> 1;
+				if (compare(i, parent) <= 0) {
+					break;
+				}
+				swap(i, parent);
+				i = parent;
+			}
+		}
+
+		private void siftDown(int i) {
+			while (true) {
+				int largest = 2 * i + 1;
+				if (largest >= size) {
+					break;
+				}
+				int right = largest + 1;
+				if (right < size && compare(right, largest) > 0) {
+					largest = right;
+				}
+				if (compare(largest, i) <= 0) {
+					break;
+				}
+				swap(i, largest);
+				i = largest;
+			}
+		}
+
+		private int compare(int i, int j) {
+			return compare(item(i), sequences[i], j);
+		}
+
+		private int compare(T item, long sequence, int j) {
+			int c = comparator.compare(item, item(j));
+			return c != 0 ? c : Long.compare(sequence, sequences[j]);
+		}
+
+		private void swap(int i, int j) {
+			Object item = items[i];
+			items[i] = items[j];
+			items[j] = item;
+			long sequence = sequences[i];
+			sequences[i] = sequences[j];
+			sequences[j] = sequence;
+		}
+
+		@SuppressWarnings("unchecked")
+		private T item(int i) {
+			return (T) items[i];
+		}
+
+	}
+
+}
@@ -0,0 +1,86 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+/**
+ * Writes generated rows to one CSV file per table in the given directory.
+ * The files have a header line and can be loaded into H2 with
+ * {@code INSERT INTO product_order SELECT * FROM CSVREAD('product_order.csv')}.
+ */
+public class CsvFileSink implements RowSink {
+
+	private final BufferedWriter customers;
+	private final BufferedWriter products;
+	private final BufferedWriter orders;
+	private final BufferedWriter orderProducts;
+
+	public CsvFileSink(Path directory) {
+		try {
+			Files.createDirectories(directory);
+			customers = open(directory.resolve("customer.csv"), "ID,NAME,TIER");
+			products = open(directory.resolve("product.csv"), "ID,NAME,CATEGORY,PRICE");
+			orders = open(directory.resolve("product_order.csv"), "ID,ORDER_DATE,DELIVERY_DATE,STATUS,CUSTOMER_ID");
+			orderProducts = open(directory.resolve("order_product_relationship.csv"), "ORDER_ID,PRODUCT_ID");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public void customer(long id, String name, int tier) {
+		write(customers, id + "," + quote(name) + "," + tier);
+	}
+
+	@Override
+	public void product(long id, String name, String category, double price) {
+		write(products, id + "," + quote(name) + "," + quote(category) + "," + price);
+	}
+
+	@Override
+	public void order(long id, LocalDate orderDate, LocalDate deliveryDate, String status, long customerId) {
+		write(orders, id + "," + orderDate + "," + deliveryDate + "," + status + "," + customerId);
+	}
+
+	@Override
+	public void orderProduct(long orderId, long productId) {
+		write(orderProducts, orderId + "," + productId);
+	}
+
+	@Override
+	public void close() {
+		try {
+			customers.close();
+			products.close();
+			orders.close();
+			orderProducts.close();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static BufferedWriter open(Path file, String header) throws IOException {
+		BufferedWriter writer = Files.newBufferedWriter(file);
+		writer.write(header);
+		writer.newLine();
+		return writer;
+	}
+
+	private static void write(BufferedWriter writer, String line) {
+		try {
+			writer.write(line);
+			writer.newLine();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static String quote(String value) {
+		return "\"" + value.replace("\"", "\"\"") + "\"";
+	}
+
+}
@@ -0,0 +1,75 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import java.nio.file.Paths;
+
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the database (or a directory of CSV files) with generated data on
+ * startup, e.g. {@code --datagen.orders=10000000}. Generated ids start after
+ * the highest id already in the database, so data.sql rows are kept.
+ */
+@Slf4j
+@Component
+@Order(0)
+@ConditionalOnProperty("datagen.orders")
+public class DataGenerationRunner implements CommandLineRunner {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Value("${datagen.orders}")
+	private long orders;
+
+	@Value("${datagen.seed:42}")
+	private long seed;
+
+	@Value("${datagen.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${datagen.output-dir:}")
+	private String outputDir;
+
+	@Override
+	public void run(String... args) {
+		long startTime = System.currentTimeMillis();
+
+		DataGenerator generator = DataGenerator.builder()
+				.seed(seed)
+				.orders(orders)
+				.idOffset(outputDir.isEmpty() ? maxId() : 0)
+				.build();
+
+		try (RowSink sink = outputDir.isEmpty()
+				? new JdbcBatchSink(dataSource, batchSize)
+				: new CsvFileSink(Paths.get(outputDir))) {
+			generator.generate(sink);
+		}
+
+		long endTime = System.currentTimeMillis();
+		log.info(String.format("generated %1$d customers, %2$d products and %3$d orders in %4$d ms",
+				generator.customerCount(), generator.productCount(), orders, (endTime - startTime)));
+	}
+
+	private long maxId() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		long maxId = 0;
+		for (String table : new String[] { "customer", "product", "product_order" }) {
+			Long tableMax = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+			if (tableMax != null) {
+				maxId = Math.max(maxId, tableMax);
+			}
+		}
+		return maxId;
+	}
+
+}
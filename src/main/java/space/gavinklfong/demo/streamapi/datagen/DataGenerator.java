@@ -0,0 +1,139 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Deterministic generator for the Customer / Product / Order model of data.sql,
+ * scaled to any number of orders. The distributions follow the hand written
+ * data: tier 1 customers dominate, Toys is the largest category, orders are
+ * clustered in Feb - Apr 2021 and contain 1 to 6 products.
+ *
+ * Rows are streamed to a {@link RowSink} as they are generated, only the row
+ * counts are kept, so the size of the output is not bounded by the heap.
+ */
+@Getter
+@Builder
+public class DataGenerator {
+
+	private static final String[] FIRST_NAMES = { "Stefan", "Daija", "Ariane", "Marques", "Rachelle",
+			"Larissa", "Fae", "Dino", "Eloy", "Brisa" };
+	private static final String[] LAST_NAMES = { "Walker", "Von", "Rodriguez", "Nikolaus", "Greenfelder",
+			"White", "Heidenreich", "Will", "Stroman", "O'Connell" };
+	private static final String[] WORDS = { "omnis", "quod", "consequatur", "vel", "libero", "suscipit",
+			"non", "nemo", "iure", "voluptatem", "voluptas", "aspernatur", "animi", "cum", "rem", "dolorem",
+			"porro", "debitis", "rerum", "qui", "deleniti", "earum", "et", "ut", "quidem", "eos", "sed",
+			"laudantium", "sit", "nihil" };
+
+	private static final int[] TIERS = { 0, 1, 2 };
+	private static final int[] TIER_WEIGHTS = { 1, 6, 3 };
+
+	private static final String[] CATEGORIES = { "Toys", "Baby", "Books", "Grocery", "Games" };
+	private static final int[] CATEGORY_WEIGHTS = { 11, 6, 5, 5, 3 };
+
+	private static final String[] STATUSES = { "NEW", "DELIVERED", "PENDING" };
+	private static final int[] STATUS_WEIGHTS = { 5, 3, 2 };
+
+	// Jan to Dec 2021, most orders are placed between Feb and Apr
+	private static final int ORDER_YEAR = 2021;
+	private static final int[] MONTH_WEIGHTS = { 2, 6, 29, 15, 2, 2, 2, 2, 2, 2, 2, 2 };
+
+	// index = number of products in the order
+	private static final int[] PRODUCTS_PER_ORDER_WEIGHTS = { 0, 8, 12, 6, 8, 6, 10 };
+
+	@Builder.Default
+	private final long seed = 42;
+
+	@Builder.Default
+	private final long orders = 50;
+
+	/** Defaults to one customer per 5 orders, like data.sql. */
+	private final Long customers;
+
+	/** Defaults to 3 products per 5 orders, like data.sql. */
+	private final Long products;
+
+	/** Added to every generated id, so that generated rows can sit next to existing ones. */
+	@Builder.Default
+	private final long idOffset = 0;
+
+	public long customerCount() {
+		return customers != null ? customers : Math.max(10, orders / 5);
+	}
+
+	public long productCount() {
+		return products != null ? products : Math.max(30, orders * 3 / 5);
+	}
+
+	public void generate(RowSink sink) {
+		Random random = new Random(seed);
+		long customerCount = customerCount();
+		long productCount = productCount();
+
+		for (long i = 1; i <= customerCount; i++) {
+			String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+					+ LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+			sink.customer(idOffset + i, name, TIERS[pick(random, TIER_WEIGHTS)]);
+		}
+
+		for (long i = 1; i <= productCount; i++) {
+			String name = WORDS[random.nextInt(WORDS.length)] + " "
+					+ WORDS[random.nextInt(WORDS.length)] + " "
+					+ WORDS[random.nextInt(WORDS.length)];
+			double price = (1000 + random.nextInt(99000)) / 100.0;
+			sink.product(idOffset + i, name, CATEGORIES[pick(random, CATEGORY_WEIGHTS)], price);
+		}
+
+		long[] lines = new long[PRODUCTS_PER_ORDER_WEIGHTS.length];
+		for (long i = 1; i <= orders; i++) {
+			long orderId = idOffset + i;
+			LocalDate month = LocalDate.of(ORDER_YEAR, pick(random, MONTH_WEIGHTS) + 1, 1);
+			LocalDate orderDate = month.plusDays(random.nextInt(month.lengthOfMonth()));
+			LocalDate deliveryDate = orderDate.plusDays(random.nextInt(10));
+
+			// a few customers place most of the orders
+			double skew = random.nextDouble();
+			long customerId = idOffset + 1 + (long) (customerCount * skew * skew);
+
+			sink.order(orderId, orderDate, deliveryDate, STATUSES[pick(random, STATUS_WEIGHTS)], customerId);
+
+			int lineCount = (int) Math.min(pick(random, PRODUCTS_PER_ORDER_WEIGHTS), productCount);
+			for (int line = 0; line < lineCount; line++) {
+				long productId;
+				do {
+					productId = idOffset + 1 + (long) (random.nextDouble() * productCount);
+				} while (contains(lines, line, productId));
+				lines[line] = productId;
+				sink.orderProduct(orderId, productId);
+			}
+		}
+	}
+
+	private static int pick(Random random, int[] weights) {
+		int total = 0;
+		for (int weight : weights) {
+			total += weight;
+		}
+		int target = random.nextInt(total);
+		for (int i = 0; i < weights.length; i++) {
+			target -= weights[i];
+			if (target < 0) {
+				return i;
+			}
+		}
+		throw new IllegalStateException("weights must be positive");
+	}
+
+	private static boolean contains(long[] values, int length, long value) {
+		for (int i = 0; i < length; i++) {
+			if (values[i] == value) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
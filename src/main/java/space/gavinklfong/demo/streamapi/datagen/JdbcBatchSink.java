@@ -0,0 +1,166 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+/**
+ * Writes generated rows with JDBC batch inserts on a single connection. The
+ * batches are executed in foreign key order and committed together every
+ * {@code batchSize} rows, so memory use stays flat whatever the row count.
+ * On close the id sequences are moved past the highest id of each table, so
+ * that entities saved afterwards do not collide with the generated rows.
+ */
+public class JdbcBatchSink implements RowSink {
+
+	private static final String INSERT_CUSTOMER = "INSERT INTO customer (id, name, tier) VALUES (?, ?, ?)";
+	private static final String INSERT_PRODUCT = "INSERT INTO product (id, name, category, price) VALUES (?, ?, ?, ?)";
+	private static final String INSERT_ORDER = "INSERT INTO product_order (id, order_date, delivery_date, status, customer_id) VALUES (?, ?, ?, ?, ?)";
+	private static final String INSERT_ORDER_PRODUCT = "INSERT INTO order_product_relationship (order_id, product_id) VALUES (?, ?)";
+
+	// table and id sequence, the sequences increment by the allocationSize of the entity id generators
+	private static final String[][] SEQUENCES = {
+			{ "customer", "customer_seq" },
+			{ "product", "product_seq" },
+			{ "product_order", "product_order_seq" } };
+	private static final int SEQUENCE_INCREMENT = 50;
+
+	private final Connection connection;
+	private final int batchSize;
+	private final PreparedStatement customers;
+	private final PreparedStatement products;
+	private final PreparedStatement orders;
+	private final PreparedStatement orderProducts;
+	private int pending;
+	private long written;
+
+	public JdbcBatchSink(DataSource dataSource, int batchSize) {
+		try {
+			this.connection = dataSource.getConnection();
+			this.connection.setAutoCommit(false);
+			this.batchSize = batchSize;
+			this.customers = connection.prepareStatement(INSERT_CUSTOMER);
+			this.products = connection.prepareStatement(INSERT_PRODUCT);
+			this.orders = connection.prepareStatement(INSERT_ORDER);
+			this.orderProducts = connection.prepareStatement(INSERT_ORDER_PRODUCT);
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to open connection for data generation", e);
+		}
+	}
+
+	@Override
+	public void customer(long id, String name, int tier) {
+		try {
+			customers.setLong(1, id);
+			customers.setString(2, name);
+			customers.setInt(3, tier);
+			customers.addBatch();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to write customer " + id, e);
+		}
+		added();
+	}
+
+	@Override
+	public void product(long id, String name, String category, double price) {
+		try {
+			products.setLong(1, id);
+			products.setString(2, name);
+			products.setString(3, category);
+			products.setDouble(4, price);
+			products.addBatch();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to write product " + id, e);
+		}
+		added();
+	}
+
+	@Override
+	public void order(long id, LocalDate orderDate, LocalDate deliveryDate, String status, long customerId) {
+		try {
+			orders.setLong(1, id);
+			orders.setDate(2, Date.valueOf(orderDate));
+			orders.setDate(3, Date.valueOf(deliveryDate));
+			orders.setString(4, status);
+			orders.setLong(5, customerId);
+			orders.addBatch();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to write order " + id, e);
+		}
+		added();
+	}
+
+	@Override
+	public void orderProduct(long orderId, long productId) {
+		try {
+			orderProducts.setLong(1, orderId);
+			orderProducts.setLong(2, productId);
+			orderProducts.addBatch();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to write product " + productId + " of order " + orderId, e);
+		}
+		added();
+	}
+
+	public long getWritten() {
+		return written;
+	}
+
+	private void added() {
+		written++;
+		if (++pending >= batchSize) {
+			flush();
+		}
+	}
+
+	private void flush() {
+		try {
+			customers.executeBatch();
+			products.executeBatch();
+			orders.executeBatch();
+			orderProducts.executeBatch();
+			connection.commit();
+			pending = 0;
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to write generated rows", e);
+		}
+	}
+
+	private void restartSequences() {
+		try (Statement statement = connection.createStatement()) {
+			for (String[] sequence : SEQUENCES) {
+				long maxId;
+				try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + sequence[0])) {
+					result.next();
+					maxId = result.getLong(1);
+				}
+				// the pooled optimizer hands out (value - increment + 1) to value
+				statement.execute("ALTER SEQUENCE " + sequence[1] + " RESTART WITH " + (maxId + SEQUENCE_INCREMENT));
+			}
+			connection.commit();
+		} catch (SQLException e) {
+			throw new IllegalStateException("Unable to restart id sequences", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			flush();
+			restartSequences();
+		} finally {
+			try {
+				connection.close();
+			} catch (SQLException e) {
+				throw new IllegalStateException("Unable to close connection", e);
+			}
+		}
+	}
+
+}
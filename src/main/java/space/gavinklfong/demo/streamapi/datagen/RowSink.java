@@ -0,0 +1,24 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import java.time.LocalDate;
+
+/**
+ * Receives the rows produced by {@link DataGenerator}, one at a time. Rows are
+ * emitted in foreign key order: all customers, all products, then each order
+ * followed by its order_product_relationship rows.
+ */
+public interface RowSink extends AutoCloseable {
+
+	void customer(long id, String name, int tier);
+
+	void product(long id, String name, String category, double price);
+
+	void order(long id, LocalDate orderDate, LocalDate deliveryDate, String status, long customerId);
+
+	void orderProduct(long orderId, long productId);
+
+	@Override
+	default void close() {
+	}
+
+}
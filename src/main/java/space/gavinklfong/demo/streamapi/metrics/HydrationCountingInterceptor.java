@@ -0,0 +1,22 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import java.io.Serializable;
+
+import org.hibernate.EmptyInterceptor;
+import org.hibernate.type.Type;
+
+/**
+ * Counts the entities hydrated by Hibernate in {@link QueryCounters}, from
+ * JDBC rows as well as from the second-level cache.
+ */
+public class HydrationCountingInterceptor extends EmptyInterceptor {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public boolean onLoad(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types) {
+		QueryCounters.entityHydrated();
+		return false;
+	}
+
+}
@@ -0,0 +1,34 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+/**
+ * Running counts, per thread, of the JDBC rows read and the entities
+ * hydrated. A call measures its own work as the difference between the
+ * counts before and after it, so nested calls are measured too.
+ */
+public final class QueryCounters {
+
+	private static final int ROWS_FETCHED = 0;
+	private static final int ENTITIES_HYDRATED = 1;
+
+	private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+	private QueryCounters() {
+	}
+
+	public static long rowsFetched() {
+		return COUNTS.get()[ROWS_FETCHED];
+	}
+
+	public static long entitiesHydrated() {
+		return COUNTS.get()[ENTITIES_HYDRATED];
+	}
+
+	static void rowFetched() {
+		COUNTS.get()[ROWS_FETCHED]++;
+	}
+
+	static void entityHydrated() {
+		COUNTS.get()[ENTITIES_HYDRATED]++;
+	}
+
+}
@@ -0,0 +1,57 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import javax.sql.DataSource;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Instruments the repositories with {@link RepositoryMetrics}: the repository
+ * proxies get the metrics advice, the data source counts the rows read and
+ * Hibernate counts the entities hydrated. The meters are published by
+ * Actuator on /actuator/metrics. Turned off with
+ * {@code analytics.metrics.enabled=false}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "analytics.metrics.enabled", matchIfMissing = true)
+public class QueryMetricsConfiguration {
+
+	@Bean
+	public static BeanPostProcessor repositoryMetricsPostProcessor(ObjectProvider<MeterRegistry> registry) {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessBeforeInitialization(Object bean, String beanName) {
+				if (bean instanceof RepositoryFactoryBeanSupport) {
+					((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+							factory -> factory.addRepositoryProxyPostProcessor((proxy, repository) -> proxy.addAdvice(
+									new RepositoryMetrics(registry.getObject(), repository.getRepositoryInterface()))));
+				}
+				return bean;
+			}
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof DataSource && !(bean instanceof RowCountingDataSource)) {
+					return new RowCountingDataSource((DataSource) bean);
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer hydrationCountingCustomizer() {
+		return properties -> properties.put(AvailableSettings.INTERCEPTOR, new HydrationCountingInterceptor());
+	}
+
+}
@@ -0,0 +1,100 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.data.domain.Slice;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import space.gavinklfong.demo.streamapi.models.AbstractEntity;
+
+/**
+ * Records every call of a repository, tagged with the repository and method:
+ * <ul>
+ * <li>{@value #INVOCATIONS}: latency, also tagged with the outcome and exception</li>
+ * <li>{@value #ROWS_FETCHED}: JDBC rows read</li>
+ * <li>{@value #ENTITIES_HYDRATED}: entities hydrated, from rows or the second-level cache</li>
+ * <li>{@value #ROWS_RETURNED}: entities returned, for collection, optional and entity results</li>
+ * </ul>
+ * Rows read while a returned {@code Stream} is consumed, or while lazy
+ * associations are initialized later, are not part of the call.
+ */
+public class RepositoryMetrics implements MethodInterceptor {
+
+	public static final String INVOCATIONS = "repository.invocations";
+	public static final String ROWS_FETCHED = "repository.rows.fetched";
+	public static final String ENTITIES_HYDRATED = "repository.entities.hydrated";
+	public static final String ROWS_RETURNED = "repository.rows.returned";
+
+	private final MeterRegistry registry;
+	private final String repository;
+
+	public RepositoryMetrics(MeterRegistry registry, Class<?> repositoryInterface) {
+		this.registry = registry;
+		this.repository = repositoryInterface.getSimpleName();
+	}
+
+	@Override
+	public Object invoke(MethodInvocation invocation) throws Throwable {
+		long rowsFetched = QueryCounters.rowsFetched();
+		long entitiesHydrated = QueryCounters.entitiesHydrated();
+		long startTime = registry.config().clock().monotonicTime();
+		Throwable error = null;
+		Object result = null;
+		try {
+			result = invocation.proceed();
+			return result;
+		} catch (Throwable e) {
+			error = e;
+			throw e;
+		} finally {
+			long duration = registry.config().clock().monotonicTime() - startTime;
+			Tags tags = Tags.of("repository", repository, "method", invocation.getMethod().getName());
+			Timer.builder(INVOCATIONS)
+					.tags(tags)
+					.tag("outcome", error == null ? "success" : "error")
+					.tag("exception", error == null ? "none" : error.getClass().getSimpleName())
+					.register(registry)
+					.record(duration, TimeUnit.NANOSECONDS);
+			summary(ROWS_FETCHED, tags, QueryCounters.rowsFetched() - rowsFetched);
+			summary(ENTITIES_HYDRATED, tags, QueryCounters.entitiesHydrated() - entitiesHydrated);
+			long returned = error == null ? rows(result) : -1;
+			if (returned >= 0) {
+				summary(ROWS_RETURNED, tags, returned);
+			}
+		}
+	}
+
+	private void summary(String name, Tags tags, long amount) {
+		DistributionSummary.builder(name)
+				.tags(tags)
+				.register(registry)
+				.record(amount);
+	}
+
+	// number of entities in the result, -1 when the result is not made of rows
+	private static long rows(Object result) {
+		if (result instanceof Collection) {
+			return ((Collection<?>) result).size();
+		}
+		if (result instanceof Map) {
+			return ((Map<?, ?>) result).size();
+		}
+		if (result instanceof Slice) {
+			return ((Slice<?>) result).getNumberOfElements();
+		}
+		if (result instanceof Optional) {
+			return ((Optional<?>) result).isPresent() ? 1 : 0;
+		}
+		return result instanceof AbstractEntity ? 1 : -1;
+	}
+
+}
@@ -0,0 +1,104 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import net.ttddyy.dsproxy.proxy.SimpleResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.jdk.CallableStatementInvocationHandler;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.jdk.PreparedStatementInvocationHandler;
+import net.ttddyy.dsproxy.proxy.jdk.StatementInvocationHandler;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+
+/**
+ * Counts the rows read from the result sets of its connections in
+ * {@link QueryCounters}, i.e. every {@code ResultSet.next()} that returns
+ * true. Connections and statements are datasource-proxy proxies, used once
+ * per statement; the result sets, read once per column and row, are wrapped
+ * in a plain {@link CountingResultSet} instead, since a reflective call per
+ * getter made scanning several times slower. The statement invocation
+ * handlers set the statement proxy on the result sets they return, so that
+ * {@code ResultSet.getStatement()} does not escape the counting.
+ */
+public class RowCountingDataSource extends ProxyDataSource {
+
+	public RowCountingDataSource(DataSource dataSource) {
+		super(dataSource);
+		setProxyConfig(ProxyConfig.Builder.create()
+				.jdbcProxyFactory(new CountingProxyFactory())
+				// result sets are only handed to createResultSet when a result set proxy is configured
+				.resultSetProxyLogicFactory(new SimpleResultSetProxyLogicFactory())
+				.build());
+	}
+
+	private static class CountingProxyFactory extends JdkJdbcProxyFactory {
+
+		@Override
+		public Statement createStatement(Statement statement, ConnectionInfo connectionInfo,
+				Connection proxyConnection, ProxyConfig proxyConfig) {
+			return proxy(Statement.class, new StatementInvocationHandler(statement, connectionInfo,
+					proxyConnection, proxyConfig) {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					return owned(proxy, super.invoke(proxy, method, args));
+				}
+			});
+		}
+
+		@Override
+		public PreparedStatement createPreparedStatement(PreparedStatement preparedStatement, String query,
+				ConnectionInfo connectionInfo, Connection proxyConnection, ProxyConfig proxyConfig,
+				boolean generateKey) {
+			return proxy(PreparedStatement.class, new PreparedStatementInvocationHandler(preparedStatement, query,
+					connectionInfo, proxyConnection, proxyConfig, generateKey) {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					return owned(proxy, super.invoke(proxy, method, args));
+				}
+			});
+		}
+
+		@Override
+		public CallableStatement createCallableStatement(CallableStatement callableStatement, String query,
+				ConnectionInfo connectionInfo, Connection proxyConnection, ProxyConfig proxyConfig) {
+			return proxy(CallableStatement.class, new CallableStatementInvocationHandler(callableStatement, query,
+					connectionInfo, proxyConnection, proxyConfig) {
+				@Override
+				public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+					return owned(proxy, super.invoke(proxy, method, args));
+				}
+			});
+		}
+
+		@Override
+		public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo,
+				ProxyConfig proxyConfig) {
+			return new CountingResultSet(resultSet);
+		}
+
+		private static <T extends Statement> T proxy(Class<T> type, InvocationHandler handler) {
+			return type.cast(Proxy.newProxyInstance(ProxyJdbcObject.class.getClassLoader(),
+					new Class<?>[] { ProxyJdbcObject.class, type }, handler));
+		}
+
+		private static Object owned(Object statement, Object result) {
+			if (result instanceof CountingResultSet) {
+				((CountingResultSet) result).setStatement((Statement) statement);
+			}
+			return result;
+		}
+
+	}
+
+}
@@ -0,0 +1,52 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Time from JVM start until the context is started ({@value #STARTED_TIME})
+ * and until the application is ready to serve ({@value #READY_TIME}).
+ */
+@Slf4j
+@Component
+public class StartupTimeMetrics {
+
+	public static final String STARTED_TIME = "application.started.time";
+	public static final String READY_TIME = "application.ready.time";
+
+	private final ObjectProvider<MeterRegistry> registry;
+
+	public StartupTimeMetrics(ObjectProvider<MeterRegistry> registry) {
+		this.registry = registry;
+	}
+
+	@EventListener(ApplicationStartedEvent.class)
+	public void started() {
+		record(STARTED_TIME, "Time taken to start the application context");
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void ready() {
+		long uptime = record(READY_TIME, "Time taken for the application to be ready to serve requests");
+		log.info(String.format("application ready in %1$d ms since JVM start", uptime));
+	}
+
+	private long record(String name, String description) {
+		long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+		registry.ifAvailable(meters -> TimeGauge.builder(name, this, TimeUnit.MILLISECONDS, metrics -> uptime)
+				.description(description)
+				.register(meters));
+		return uptime;
+	}
+
+}
@@ -0,0 +1,61 @@
+package space.gavinklfong.demo.streamapi.models;
+
+import org.hibernate.proxy.HibernateProxyHelper;
+
+/**
+ * Identity of the entities for use as hash keys: two instances are equal
+ * when they are of the same entity class and have the same id, and the hash
+ * code is computed once and cached.
+ * <p>
+ * The hash of an instance that is hashed before it has an id (a new entity
+ * put in a set before it is saved) is based on object identity and is kept
+ * after the id is assigned, so the instance stays where it was hashed. To
+ * keep equals consistent, such an instance is only equal to itself.
+ * <p>
+ * equals and hashCode are final and only call {@link #getId()}, so lazy
+ * proxies are compared and hashed without being initialized.
+ * <p>
+ * The entities have no id setter: the id is given to the builder or
+ * assigned by Hibernate on persist, so a hash derived from it stays valid.
+ */
+public abstract class AbstractEntity {
+
+	// 0 until computed, odd when derived from the id, even when from object identity
+	private transient int hash;
+
+	public abstract Long getId();
+
+	@Override
+	public final int hashCode() {
+		int h = hash;
+		if (h == 0) {
+			Long id = getId();
+			h = id != null ? Long.hashCode(id) << 1 | 1 : System.identityHashCode(this) << 1;
+			hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public final boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof AbstractEntity) || entityClass(this) != entityClass(o)) {
+			return false;
+		}
+		AbstractEntity other = (AbstractEntity) o;
+		Long id = getId();
+		return id != null && id.equals(other.getId()) && !hashedWithoutId() && !other.hashedWithoutId();
+	}
+
+	private boolean hashedWithoutId() {
+		int h = hash;
+		return h != 0 && (h & 1) == 0;
+	}
+
+	private static Class<?> entityClass(Object entity) {
+		return HibernateProxyHelper.getClassWithoutInitializingProxy(entity);
+	}
+
+}
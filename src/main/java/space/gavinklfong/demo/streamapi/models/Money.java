@@ -0,0 +1,123 @@
+package space.gavinklfong.demo.streamapi.models;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Fixed-point amount of money stored as a {@code long} number of cents.
+ * Addition is exact, operations that divide round half-even to the cent.
+ */
+@Getter
+@EqualsAndHashCode
+public final class Money implements Comparable<Money> {
+
+	public static final int SCALE = 2;
+
+	public static final Money ZERO = new Money(0);
+
+	private static final long CENTS_PER_UNIT = 100;
+
+	private final long cents;
+
+	private Money(long cents) {
+		this.cents = cents;
+	}
+
+	public static Money ofCents(long cents) {
+		return cents == 0 ? ZERO : new Money(cents);
+	}
+
+	/**
+	 * @throws ArithmeticException if the amount has more than two decimals
+	 */
+	public static Money of(BigDecimal amount) {
+		return ofCents(amount.setScale(SCALE).unscaledValue().longValueExact());
+	}
+
+	/**
+	 * Nearest amount in cents, exact for the two-decimal prices read from the
+	 * {@code decimal(19,2)} price column.
+	 */
+	public static Money of(double amount) {
+		return ofCents(toCents(amount));
+	}
+
+	public static long toCents(double amount) {
+		if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+			throw new ArithmeticException("Not a finite amount: " + amount);
+		}
+		return Math.round(amount * CENTS_PER_UNIT);
+	}
+
+	public Money plus(Money other) {
+		return ofCents(Math.addExact(cents, other.cents));
+	}
+
+	public Money minus(Money other) {
+		return ofCents(Math.subtractExact(cents, other.cents));
+	}
+
+	public Money times(long quantity) {
+		return ofCents(Math.multiplyExact(cents, quantity));
+	}
+
+	/**
+	 * This amount times {@code factor}, rounded half-even to the cent.
+	 */
+	public Money times(BigDecimal factor) {
+		return ofCents(times(cents, factor));
+	}
+
+	public static long times(long cents, BigDecimal factor) {
+		return BigDecimal.valueOf(cents).multiply(factor).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+	}
+
+	/**
+	 * This amount less {@code percent} per cent, e.g. {@code percentOff(10)}
+	 * for a 10% discount.
+	 */
+	public Money percentOff(int percent) {
+		return ofCents(percentOff(cents, percent));
+	}
+
+	public static long percentOff(long cents, int percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException("percent must be between 0 and 100: " + percent);
+		}
+		return divideHalfEven(Math.multiplyExact(cents, 100L - percent), 100);
+	}
+
+	/**
+	 * {@code dividend / divisor} rounded half-even, {@code divisor} must be positive.
+	 */
+	public static long divideHalfEven(long dividend, long divisor) {
+		long quotient = Math.floorDiv(dividend, divisor);
+		long twiceRemainder = 2 * Math.floorMod(dividend, divisor);
+		if (twiceRemainder > divisor || (twiceRemainder == divisor && (quotient & 1) != 0)) {
+			quotient++;
+		}
+		return quotient;
+	}
+
+	public BigDecimal toBigDecimal() {
+		return BigDecimal.valueOf(cents, SCALE);
+	}
+
+	public double toDouble() {
+		return (double) cents / CENTS_PER_UNIT;
+	}
+
+	@Override
+	public int compareTo(Money other) {
+		return Long.compare(cents, other.cents);
+	}
+
+	@Override
+	public String toString() {
+		return toBigDecimal().toPlainString();
+	}
+
+}
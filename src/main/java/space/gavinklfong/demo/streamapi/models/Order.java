@@ -7,15 +7,22 @@ import java.time.LocalDate;
 import java.util.Set;
 
 @Builder
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "product_order")
-public class Order {
+@Table(name = "product_order", indexes = {
+		@Index(name = "idx_order_order_date", columnList = "order_date"),
+		@Index(name = "idx_order_customer", columnList = "customer_id")
+})
+public class Order extends AbstractEntity {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_order_seq")
+	@SequenceGenerator(name = "product_order_seq", sequenceName = "product_order_seq", allocationSize = 50)
+	@Setter(AccessLevel.NONE)
 	private Long id;
 
 	@Column(name="order_date")
@@ -26,7 +33,7 @@ public class Order {
 	
 	private String status;
 	
-	@ManyToOne
+	@ManyToOne(fetch = FetchType.LAZY)
 	@JoinColumn(name = "customer_id")
 	private Customer customer;
 	
@@ -34,9 +41,9 @@ public class Order {
 	@JoinTable(
 			name = "order_product_relationship",
 			joinColumns = { @JoinColumn(name = "order_id") },
-			inverseJoinColumns = { @JoinColumn(name = "product_id") }
+			inverseJoinColumns = { @JoinColumn(name = "product_id") },
+			indexes = @Index(name = "idx_order_product_product", columnList = "product_id")
 	)
 	@ToString.Exclude
-	@EqualsAndHashCode.Exclude
 	Set<Product> products;
 }
@@ -2,43 +2,72 @@ package space.gavinklfong.demo.streamapi.models;
 
 import java.util.Set;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 import lombok.With;
 
 @Builder
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table
-public class Product {
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@Table(indexes = @Index(name = "idx_product_category_price", columnList = "category, price"))
+public class Product extends AbstractEntity {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+	@SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
+	@Setter(AccessLevel.NONE)
 	private Long id;
 
 	private String name;
 
 	private String category;
 	
+	// exact decimal in the database and mandatory, use getPriceAsMoney() for exact arithmetic
 	@With
+	@Column(nullable = false, columnDefinition = "decimal(19,2)")
 	private Double price;
 	
 	@ManyToMany(mappedBy = "products")
 	@ToString.Exclude
-	@EqualsAndHashCode.Exclude
 	private Set<Order> orders;
-	
+
+	/**
+	 * @throws IllegalStateException if the price is not set yet
+	 */
+	public long getPriceInCents() {
+		if (price == null) {
+			throw new IllegalStateException("Product " + id + " has no price");
+		}
+		return Money.toCents(price);
+	}
+
+	public Money getPriceAsMoney() {
+		return Money.ofCents(getPriceInCents());
+	}
+
 }
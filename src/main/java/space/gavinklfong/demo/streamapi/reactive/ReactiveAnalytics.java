@@ -0,0 +1,114 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.function.Function;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import space.gavinklfong.demo.streamapi.collectors.CompensatedSum;
+import space.gavinklfong.demo.streamapi.collectors.TopK;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * The exercise aggregations over the reactive repositories, with Reactor
+ * operators in place of the stream pipelines. The filters are pushed into
+ * the queries, the rest is folded as the rows arrive.
+ */
+public class ReactiveAnalytics {
+
+	private static final Comparator<Product> BY_PRICE = Comparator.comparingDouble(Product::getPrice)
+			.thenComparingLong(Product::getId);
+
+	// highest price first, the lowest id among equally priced products
+	private static final Comparator<Product> MOST_EXPENSIVE = Comparator.comparingDouble(Product::getPrice)
+			.reversed()
+			.thenComparingLong(Product::getId);
+
+	private final ReactiveOrderRepo orderRepo;
+	private final ReactiveProductRepo productRepo;
+
+	public ReactiveAnalytics(ReactiveOrderRepo orderRepo, ReactiveProductRepo productRepo) {
+		this.orderRepo = orderRepo;
+		this.productRepo = productRepo;
+	}
+
+	// exercise 1
+	public Flux<Product> pricedAbove(String category, double price) {
+		return productRepo.findByCategoryAndPriceGreaterThan(category, price);
+	}
+
+	// exercise 4, products ordered by customers of a tier between two dates, inclusive
+	public Flux<Product> productsOrderedByTier(int tier, LocalDate from, LocalDate to) {
+		return orderRepo.findByCustomerTierAndOrderDateBetween(tier, from, to)
+				.flatMapIterable(Order::getProducts)
+				.distinct();
+	}
+
+	// exercise 5, cheapest products of a category
+	public Flux<Product> cheapest(String category, int count) {
+		return productRepo.findByCategory(category)
+				.collect(TopK.least(count, BY_PRICE))
+				.flatMapIterable(Function.identity());
+	}
+
+	// exercise 7
+	public Flux<Product> productsOrderedOn(LocalDate date) {
+		return orderRepo.findByOrderDate(date)
+				.flatMapIterable(Order::getProducts)
+				.distinct();
+	}
+
+	// exercise 8, lump sum of the orders between two dates, inclusive
+	public Mono<Double> totalPriceBetween(LocalDate from, LocalDate to) {
+		return orderRepo.findByOrderDateBetween(from, to)
+				.flatMapIterable(Order::getProducts)
+				.reduceWith(CompensatedSum::new, (sum, p) -> sum.add(p.getPrice()))
+				.map(CompensatedSum::sum);
+	}
+
+	// exercise 9
+	public Mono<OptionalDouble> averagePriceOn(LocalDate date) {
+		return orderRepo.findByOrderDate(date)
+				.flatMapIterable(Order::getProducts)
+				.collect(DoubleSummaryStatistics::new, (stats, p) -> stats.accept(p.getPrice()))
+				.map(stats -> stats.getCount() == 0 ? OptionalDouble.empty() : OptionalDouble.of(stats.getAverage()));
+	}
+
+	// exercise 10
+	public Mono<DoubleSummaryStatistics> priceStatistics(String category) {
+		return productRepo.findByCategory(category)
+				.collect(DoubleSummaryStatistics::new, (stats, p) -> stats.accept(p.getPrice()));
+	}
+
+	// exercise 12a
+	public Mono<Map<Long, Collection<Long>>> orderIdsByCustomerId() {
+		return orderRepo.findAll()
+				.filter(o -> o.getCustomer() != null)
+				.collectMultimap(o -> o.getCustomer().getId(), Order::getId);
+	}
+
+	// exercise 13
+	public Mono<Map<Long, Double>> orderTotals() {
+		return orderRepo.findAll()
+				.collectMap(Order::getId, o -> o.getProducts()
+						.stream()
+						.mapToDouble(Product::getPrice)
+						.sum());
+	}
+
+	// exercise 15
+	public Mono<Map<String, Product>> mostExpensiveByCategory() {
+		return productRepo.findAll()
+				.groupBy(Product::getCategory)
+				.flatMap(group -> group.reduce((a, b) -> MOST_EXPENSIVE.compare(a, b) <= 0 ? a : b))
+				.collectMap(Product::getCategory);
+	}
+
+}
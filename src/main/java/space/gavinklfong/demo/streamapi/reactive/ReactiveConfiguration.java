@@ -0,0 +1,40 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The optional reactive read path: {@link ReactiveOrderRepo} and
+ * {@link ReactiveProductRepo} over R2DBC, next to the JPA repositories.
+ * Off by default, turned on with {@code reactive.enabled=true}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "reactive.enabled")
+public class ReactiveConfiguration {
+
+	@Bean
+	public ReactiveDatabase reactiveDatabase(@Value("${reactive.url}") String url,
+			@Value("${reactive.username:${spring.datasource.username:sa}}") String username,
+			@Value("${reactive.password:${spring.datasource.password:}}") String password,
+			@Value("${reactive.pool-size:10}") int poolSize) {
+		return new ReactiveDatabase(url, username, password, poolSize);
+	}
+
+	@Bean
+	public ReactiveOrderRepo reactiveOrderRepo(ReactiveDatabase database) {
+		return new ReactiveOrderRepo(database.getClient());
+	}
+
+	@Bean
+	public ReactiveProductRepo reactiveProductRepo(ReactiveDatabase database) {
+		return new ReactiveProductRepo(database.getClient());
+	}
+
+	@Bean
+	public ReactiveAnalytics reactiveAnalytics(ReactiveOrderRepo orderRepo, ReactiveProductRepo productRepo) {
+		return new ReactiveAnalytics(orderRepo, productRepo);
+	}
+
+}
@@ -0,0 +1,45 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+
+/**
+ * R2DBC connection pool and client of the reactive read path, on the same H2
+ * database as the JDBC data source.
+ * <p>
+ * Deliberately not a {@code ConnectionFactory} bean: Spring Boot would then
+ * back off from configuring the JDBC data source used by JPA.
+ */
+public class ReactiveDatabase implements DisposableBean {
+
+	private final ConnectionPool pool;
+	private final DatabaseClient client;
+
+	public ReactiveDatabase(String url, String username, String password, int poolSize) {
+		ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url)
+				.mutate()
+				.option(ConnectionFactoryOptions.USER, username)
+				.option(ConnectionFactoryOptions.PASSWORD, password)
+				.build();
+		this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+				.initialSize(0)
+				.maxSize(poolSize)
+				.build());
+		this.client = DatabaseClient.create(pool);
+	}
+
+	public DatabaseClient getClient() {
+		return client;
+	}
+
+	@Override
+	public void destroy() {
+		pool.dispose();
+	}
+
+}
@@ -0,0 +1,134 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Reactive counterpart of the OrderRepo finders, orders come with their
+ * customer and products.
+ * <p>
+ * The orders are read with one join to their products, ordered by order id,
+ * and the rows of an order are folded into one unmanaged {@link Order} as
+ * they arrive. Only the rows of the order being assembled are held, so a
+ * subscriber that requests orders one by one keeps the result set streaming
+ * at its own pace instead of having it buffered.
+ */
+public class ReactiveOrderRepo {
+
+	private static final String SELECT = "select o.id, o.order_date, o.delivery_date, o.status,"
+			+ " c.id as customer_id, c.name as customer_name, c.tier as customer_tier,"
+			+ " p.id as product_id, p.name as product_name, p.category as product_category, p.price as product_price"
+			+ " from product_order o"
+			+ " left join customer c on c.id = o.customer_id"
+			+ " left join order_product_relationship op on op.order_id = o.id"
+			+ " left join product p on p.id = op.product_id ";
+
+	private static final String ORDER_BY = " order by o.id, p.id";
+
+	private final DatabaseClient client;
+
+	public ReactiveOrderRepo(DatabaseClient client) {
+		this.client = client;
+	}
+
+	public Flux<Order> findAll() {
+		return orders(client.sql(SELECT + ORDER_BY));
+	}
+
+	public Flux<Order> findByOrderDate(LocalDate orderDate) {
+		return orders(client.sql(SELECT + "where o.order_date = :orderDate" + ORDER_BY)
+				.bind("orderDate", orderDate));
+	}
+
+	public Flux<Order> findByOrderDateBetween(LocalDate from, LocalDate to) {
+		return orders(client.sql(SELECT + "where o.order_date between :from and :to" + ORDER_BY)
+				.bind("from", from)
+				.bind("to", to));
+	}
+
+	public Flux<Order> findByCustomerTier(int tier) {
+		return orders(client.sql(SELECT + "where c.tier = :tier" + ORDER_BY)
+				.bind("tier", tier));
+	}
+
+	public Flux<Order> findByCustomerTierAndOrderDateBetween(int tier, LocalDate from, LocalDate to) {
+		return orders(client.sql(SELECT + "where c.tier = :tier and o.order_date between :from and :to" + ORDER_BY)
+				.bind("tier", tier)
+				.bind("from", from)
+				.bind("to", to));
+	}
+
+	private static Flux<Order> orders(DatabaseClient.GenericExecuteSpec spec) {
+		return spec.map((row, metadata) -> OrderRow.of(row))
+				.all()
+				.bufferUntilChanged(OrderRow::getOrderId)
+				.map(ReactiveOrderRepo::order);
+	}
+
+	private static Order order(List<OrderRow> rows) {
+		Set<Product> products = new LinkedHashSet<>();
+		for (OrderRow row : rows) {
+			if (row.product != null) {
+				products.add(row.product);
+			}
+		}
+		Order order = rows.get(0).order;
+		order.setProducts(products);
+		return order;
+	}
+
+	// one row of the join, the order part is repeated for each of its products
+	private static final class OrderRow {
+
+		private final Order order;
+		private final Product product;
+
+		private OrderRow(Order order, Product product) {
+			this.order = order;
+			this.product = product;
+		}
+
+		Long getOrderId() {
+			return order.getId();
+		}
+
+		static OrderRow of(Row row) {
+			Long customerId = row.get("customer_id", Long.class);
+			Customer customer = customerId == null ? null : Customer.builder()
+					.id(customerId)
+					.name(row.get("customer_name", String.class))
+					.tier(row.get("customer_tier", Integer.class))
+					.build();
+			Order order = Order.builder()
+					.id(row.get("id", Long.class))
+					.orderDate(row.get("order_date", LocalDate.class))
+					.deliveryDate(row.get("delivery_date", LocalDate.class))
+					.status(row.get("status", String.class))
+					.customer(customer)
+					.build();
+			Long productId = row.get("product_id", Long.class);
+			BigDecimal price = row.get("product_price", BigDecimal.class);
+			Product product = productId == null ? null : Product.builder()
+					.id(productId)
+					.name(row.get("product_name", String.class))
+					.category(row.get("product_category", String.class))
+					.price(price == null ? null : price.doubleValue())
+					.build();
+			return new OrderRow(order, product);
+		}
+
+	}
+
+}
@@ -0,0 +1,82 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import java.math.BigDecimal;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Reactive counterpart of the ProductRepo finders. Products are mapped from
+ * the rows into plain, unmanaged {@link Product} instances, without orders.
+ */
+public class ReactiveProductRepo {
+
+	private static final String SELECT = "select id, name, category, price from product ";
+
+	private final DatabaseClient client;
+
+	public ReactiveProductRepo(DatabaseClient client) {
+		this.client = client;
+	}
+
+	public Flux<Product> findAll() {
+		return client.sql(SELECT + "order by id")
+				.map((row, metadata) -> product(row))
+				.all();
+	}
+
+	public Mono<Product> findById(long id) {
+		return client.sql(SELECT + "where id = :id")
+				.bind("id", id)
+				.map((row, metadata) -> product(row))
+				.one();
+	}
+
+	public Flux<Product> findByCategory(String category) {
+		return client.sql(SELECT + "where category = :category order by id")
+				.bind("category", category)
+				.map((row, metadata) -> product(row))
+				.all();
+	}
+
+	public Flux<Product> findByCategoryAndPriceGreaterThan(String category, double price) {
+		return client.sql(SELECT + "where category = :category and price > :price order by id")
+				.bind("category", category)
+				.bind("price", price)
+				.map((row, metadata) -> product(row))
+				.all();
+	}
+
+	public Flux<Product> findByCategoryAndPriceBetween(String category, double minPrice, double maxPrice) {
+		return client.sql(SELECT + "where category = :category and price between :minPrice and :maxPrice order by id")
+				.bind("category", category)
+				.bind("minPrice", minPrice)
+				.bind("maxPrice", maxPrice)
+				.map((row, metadata) -> product(row))
+				.all();
+	}
+
+	public Flux<Product> findByPriceBetween(double minPrice, double maxPrice) {
+		return client.sql(SELECT + "where price between :minPrice and :maxPrice order by id")
+				.bind("minPrice", minPrice)
+				.bind("maxPrice", maxPrice)
+				.map((row, metadata) -> product(row))
+				.all();
+	}
+
+	private static Product product(Row row) {
+		BigDecimal price = row.get("price", BigDecimal.class);
+		return Product.builder()
+				.id(row.get("id", Long.class))
+				.name(row.get("name", String.class))
+				.category(row.get("category", String.class))
+				.price(price == null ? null : price.doubleValue())
+				.build();
+	}
+
+}
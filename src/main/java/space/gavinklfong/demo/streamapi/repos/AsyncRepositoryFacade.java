@@ -0,0 +1,158 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs reads of the three repositories concurrently, so independent loads
+ * take as long as the slowest of them instead of their sum:
+ *
+ * <pre>
+ * CompletableFuture&lt;List&lt;Customer&gt;&gt; customers = repos.customers(CustomerRepo::findAll);
+ * CompletableFuture&lt;List&lt;Product&gt;&gt; products = repos.products(ProductRepo::findAll);
+ * </pre>
+ *
+ * Each query runs in a read-only transaction of its own on the executor, so
+ * it may navigate lazy associations, e.g. to map the entities to views, but
+ * the entities are detached once the future completes.
+ * <p>
+ * A query is expected to use one connection. Each repository has a budget of
+ * {@code repos.async.connections-per-repository} queries running at the same
+ * time, so one repository can't take the whole connection pool. Queries run
+ * on virtual threads on JDK 21+, otherwise each repository has a fixed pool of
+ * platform threads sized to its budget, so queries waiting for a busy
+ * repository never hold up the threads of the others.
+ */
+@Slf4j
+@Component
+public class AsyncRepositoryFacade {
+
+	private final CustomerRepo customerRepo;
+	private final OrderRepo orderRepo;
+	private final ProductRepo productRepo;
+	private final TransactionTemplate readOnly;
+	private final Lane customers;
+	private final Lane orders;
+	private final Lane products;
+
+	public AsyncRepositoryFacade(CustomerRepo customerRepo, OrderRepo orderRepo, ProductRepo productRepo,
+			PlatformTransactionManager transactionManager,
+			@Value("${repos.async.connections-per-repository:3}") int connectionsPerRepository,
+			@Value("${repos.async.virtual-threads:true}") boolean virtualThreads) {
+		if (connectionsPerRepository <= 0) {
+			throw new IllegalArgumentException("connectionsPerRepository must be positive: " + connectionsPerRepository);
+		}
+		this.customerRepo = customerRepo;
+		this.orderRepo = orderRepo;
+		this.productRepo = productRepo;
+		this.readOnly = new TransactionTemplate(transactionManager);
+		this.readOnly.setReadOnly(true);
+
+		ExecutorService virtual = virtualThreads ? virtualThreadExecutor() : null;
+		this.customers = new Lane(connectionsPerRepository, virtual, "customers");
+		this.orders = new Lane(connectionsPerRepository, virtual, "orders");
+		this.products = new Lane(connectionsPerRepository, virtual, "products");
+		log.info("async repository reads run on " + (virtual != null ? "virtual threads" : "platform threads"));
+	}
+
+	public <T> CompletableFuture<T> customers(Function<CustomerRepo, T> query) {
+		return customers.submit(() -> query.apply(customerRepo));
+	}
+
+	public <T> CompletableFuture<T> orders(Function<OrderRepo, T> query) {
+		return orders.submit(() -> query.apply(orderRepo));
+	}
+
+	public <T> CompletableFuture<T> products(Function<ProductRepo, T> query) {
+		return products.submit(() -> query.apply(productRepo));
+	}
+
+	/**
+	 * Waits for the result, rethrowing the exception of a failed query as is
+	 * instead of wrapped in a {@link CompletionException}.
+	 */
+	public static <T> T await(CompletableFuture<T> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		customers.executor.shutdown();
+		orders.executor.shutdown();
+		products.executor.shutdown();
+	}
+
+	// Executors.newVirtualThreadPerTaskExecutor() on JDK 21+, null on older JDKs
+	private static ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static ExecutorService platformThreadExecutor(int threads, String name) {
+		AtomicInteger count = new AtomicInteger();
+		return Executors.newFixedThreadPool(threads, task -> {
+			Thread thread = new Thread(task, "repos-async-" + name + "-" + count.getAndIncrement());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	// the queries of one repository: a permit is taken on the thread running the
+	// query, which only ever blocks a virtual thread, platform pools have as
+	// many threads as permits
+	private class Lane {
+
+		private final Semaphore permits;
+		private final ExecutorService executor;
+
+		Lane(int connections, ExecutorService virtual, String name) {
+			this.permits = new Semaphore(connections, true);
+			this.executor = virtual != null ? virtual : platformThreadExecutor(connections, name);
+		}
+
+		<T> CompletableFuture<T> submit(Supplier<T> query) {
+			return CompletableFuture.supplyAsync(() -> {
+				try {
+					permits.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new CompletionException(e);
+				}
+				try {
+					return readOnly.execute(status -> query.get());
+				} finally {
+					permits.release();
+				}
+			}, executor);
+		}
+
+	}
+
+}
@@ -0,0 +1,25 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The product names of a category, concatenated by the database in product
+ * id order and separated by {@link #SEPARATOR}.
+ */
+public interface CategoryNames {
+
+	// the ASCII unit separator, not expected in product names
+	char SEPARATOR = '\u001f';
+
+	String getCategory();
+
+	String getNames();
+
+	default List<String> getNameList() {
+		String names = getNames();
+		return names == null ? Collections.emptyList() : Arrays.asList(names.split(String.valueOf(SEPARATOR), -1));
+	}
+
+}
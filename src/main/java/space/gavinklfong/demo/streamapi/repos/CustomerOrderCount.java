@@ -0,0 +1,15 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import lombok.Value;
+
+/**
+ * The number of orders of a customer, counted by the database.
+ */
+@Value
+public class CustomerOrderCount {
+
+	long customerId;
+
+	long orders;
+
+}
@@ -0,0 +1,15 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import lombok.Value;
+
+/**
+ * An order id with the id of its customer, read from the order row alone.
+ */
+@Value
+public class CustomerOrderId {
+
+	long customerId;
+
+	long orderId;
+
+}
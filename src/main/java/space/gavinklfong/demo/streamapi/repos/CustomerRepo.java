@@ -2,13 +2,29 @@ package space.gavinklfong.demo.streamapi.repos;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
 import space.gavinklfong.demo.streamapi.models.Customer;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
 public interface CustomerRepo extends CrudRepository<Customer, Long> {
 
+	// customers are reference data, the query results are kept in the query cache
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
 	List<Customer> findAll();
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Customer> findByTier(Integer tier);
+
+	// a page of rows, without loading the whole table
+
+	List<Customer> findAllBy(Pageable pageable);
 }
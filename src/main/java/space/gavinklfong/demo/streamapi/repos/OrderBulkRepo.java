@@ -0,0 +1,34 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+
+/**
+ * Bulk ingestion of new orders. Orders and their product links are written
+ * with JDBC batch inserts of {@code hibernate.jdbc.batch_size} rows, and the
+ * persistence context is flushed every {@code flushSize} orders and the orders
+ * flushed are detached, so the persistence context does not grow with the
+ * number of orders. The other entities it manages, such as the customers and
+ * products of the orders, are left managed.
+ *
+ * The aggregates are updated when the transaction commits, until then they
+ * keep the date and product ids of each inserted order: this part of the
+ * memory does grow with the number of orders inserted in the transaction, so
+ * very large loads should be split over several transactions.
+ *
+ * The orders must be new, their customer and products already saved. Once
+ * inserted the orders are detached, with their ids assigned.
+ */
+public interface OrderBulkRepo {
+
+	int DEFAULT_FLUSH_SIZE = 1000;
+
+	/**
+	 * @return the number of orders inserted
+	 */
+	int insertAll(Iterable<Order> orders, int flushSize);
+
+	default int insertAll(Iterable<Order> orders) {
+		return insertAll(orders, DEFAULT_FLUSH_SIZE);
+	}
+
+}
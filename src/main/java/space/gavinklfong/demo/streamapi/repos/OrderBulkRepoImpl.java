@@ -0,0 +1,46 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+
+public class OrderBulkRepoImpl implements OrderBulkRepo {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	@Transactional
+	public int insertAll(Iterable<Order> orders, int flushSize) {
+		if (flushSize <= 0) {
+			throw new IllegalArgumentException("flushSize must be positive: " + flushSize);
+		}
+		entityManager.flush();
+		List<Order> batch = new ArrayList<>(Math.min(flushSize, DEFAULT_FLUSH_SIZE));
+		int inserted = 0;
+		for (Order order : orders) {
+			entityManager.persist(order);
+			batch.add(order);
+			inserted++;
+			if (batch.size() == flushSize) {
+				flushAndDetach(batch);
+			}
+		}
+		flushAndDetach(batch);
+		return inserted;
+	}
+
+	// only the inserted orders are detached, the caller's entities stay managed
+	private void flushAndDetach(List<Order> batch) {
+		entityManager.flush();
+		batch.forEach(entityManager::detach);
+		batch.clear();
+	}
+
+}
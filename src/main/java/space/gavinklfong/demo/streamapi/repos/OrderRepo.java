@@ -1,14 +1,88 @@
 package space.gavinklfong.demo.streamapi.repos;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+
 import space.gavinklfong.demo.streamapi.models.Order;
 
 @Repository
-public interface OrderRepo extends CrudRepository<Order, Long> {
+public interface OrderRepo extends CrudRepository<Order, Long>, OrderStreamingRepo, OrderBulkRepo {
+
+	String PASS_DISTINCT_THROUGH = "hibernate.query.passDistinctThrough";
 
 	List<Order> findAll();
+
+	// a page of rows, without loading the whole table
+
+	List<Order> findAllBy(Pageable pageable);
+
+	List<Order> findByOrderDate(LocalDate orderDate);
+
+	List<Order> findByOrderDateBetween(LocalDate from, LocalDate to);
+
+	List<Order> findByCustomerTier(Integer tier);
+
+	List<Order> findByCustomerTierAndOrderDateBetween(Integer tier, LocalDate from, LocalDate to);
+
+	// most recent orders first, read from the order_date index and ties broken by id
+
+	List<Order> findTop3ByOrderByOrderDateDescIdAsc();
+
+	List<Order> findByOrderByOrderDateDescIdAsc(Pageable pageable);
+
+	// keyset pagination, the page after (afterDate, afterId) in (order_date, id) order
+
+	@Query("select o from Order o where o.orderDate between :from and :to "
+			+ "and (o.orderDate > :afterDate or (o.orderDate = :afterDate and o.id > :afterId)) "
+			+ "order by o.orderDate, o.id")
+	List<Order> findPageByOrderDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to,
+			@Param("afterDate") LocalDate afterDate, @Param("afterId") Long afterId, Pageable pageable);
+
+	// fetch plans, load the orders together with their customer and products in a single select
+
+	@EntityGraph(attributePaths = { "customer", "products" })
+	@Query("select distinct o from Order o")
+	@QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+	List<Order> findAllWithProducts();
+
+	@Query("select distinct o from Order o left join fetch o.customer left join fetch o.products "
+			+ "where o.orderDate between :from and :to")
+	@QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+	List<Order> findByOrderDateBetweenWithCustomerAndProducts(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	@Query("select distinct o from Order o join fetch o.customer c left join fetch o.products "
+			+ "where c.tier = :tier and o.orderDate between :from and :to")
+	@QueryHints(@QueryHint(name = PASS_DISTINCT_THROUGH, value = "false"))
+	List<Order> findByCustomerTierAndOrderDateBetweenWithProducts(@Param("tier") Integer tier,
+			@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	// projections, only the columns needed are selected and no entity is hydrated
+
+	@Query("select new space.gavinklfong.demo.streamapi.repos.CustomerOrderId(o.customer.id, o.id) "
+			+ "from Order o where o.customer is not null")
+	List<CustomerOrderId> findAllCustomerOrderIds();
+
+	@Query("select new space.gavinklfong.demo.streamapi.repos.OrderTotal(o.id, coalesce(sum(p.price), 0D)) "
+			+ "from Order o left join o.products p group by o.id")
+	List<OrderTotal> findAllOrderTotals();
+
+	@Query("select new space.gavinklfong.demo.streamapi.repos.OrderTotal(o.id, coalesce(sum(p.price), 0D)) "
+			+ "from Order o left join o.products p where o.orderDate between :from and :to group by o.id")
+	List<OrderTotal> findOrderTotalsByOrderDateBetween(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+	// aggregations pushed down to the database, one row per group
+
+	@Query("select new space.gavinklfong.demo.streamapi.repos.CustomerOrderCount(o.customer.id, count(o)) "
+			+ "from Order o where o.customer is not null group by o.customer.id")
+	List<CustomerOrderCount> countOrdersByCustomer();
 }
@@ -0,0 +1,34 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+
+/**
+ * Streams orders (with customer and products) from a forward-only cursor
+ * instead of materializing a list. The orders are read in a persistence
+ * context of their own, cleared every {@code fetchSize} orders, so memory use
+ * does not grow with the table and the caller's entities stay managed.
+ *
+ * The methods have to be called within a transaction and the stream closed
+ * once consumed, e.g. with try-with-resources. Orders handed out are detached
+ * once the next batch is read, so they must not be kept.
+ */
+public interface OrderStreamingRepo {
+
+	int DEFAULT_FETCH_SIZE = 1000;
+
+	Stream<Order> streamAll(int fetchSize);
+
+	Stream<Order> streamByOrderDateBetween(LocalDate from, LocalDate to, int fetchSize);
+
+	default Stream<Order> streamAll() {
+		return streamAll(DEFAULT_FETCH_SIZE);
+	}
+
+	default Stream<Order> streamByOrderDateBetween(LocalDate from, LocalDate to) {
+		return streamByOrderDateBetween(from, to, DEFAULT_FETCH_SIZE);
+	}
+
+}
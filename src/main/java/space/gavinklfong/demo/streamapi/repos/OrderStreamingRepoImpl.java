@@ -0,0 +1,119 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.time.LocalDate;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.FlushMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+
+/**
+ * The orders are read by a session of their own, sharing the connection and
+ * transaction of the caller's but not its persistence context, so clearing
+ * it every batch leaves the caller's entities managed. Pending changes of the
+ * caller are flushed first so the query sees them, as it would in the
+ * caller's session.
+ */
+public class OrderStreamingRepoImpl implements OrderStreamingRepo {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public Stream<Order> streamAll(int fetchSize) {
+		Session session = openSession();
+		return stream(session, session.createQuery(
+				"select o from Order o left join fetch o.customer left join fetch o.products order by o.id",
+				Order.class), fetchSize);
+	}
+
+	@Override
+	public Stream<Order> streamByOrderDateBetween(LocalDate from, LocalDate to, int fetchSize) {
+		Session session = openSession();
+		return stream(session, session.createQuery(
+				"select o from Order o left join fetch o.customer left join fetch o.products "
+						+ "where o.orderDate between :from and :to order by o.id",
+				Order.class)
+				.setParameter("from", from)
+				.setParameter("to", to), fetchSize);
+	}
+
+	private Session openSession() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			throw new InvalidDataAccessApiUsageException(
+					"Order streams need a surrounding transaction, the cursor is closed when the transaction ends");
+		}
+		Session caller = entityManager.unwrap(Session.class);
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			caller.flush();
+		}
+		Session session = caller.sessionWithOptions()
+				.connection()
+				.flushMode(FlushMode.MANUAL)
+				.openSession();
+		session.setDefaultReadOnly(true);
+		// in case the stream is not closed
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (session.isOpen()) {
+					session.close();
+				}
+			}
+		});
+		return session;
+	}
+
+	private static Stream<Order> stream(Session session, Query<Order> query, int fetchSize) {
+		ScrollableResults results;
+		try {
+			results = query
+					.setFetchSize(fetchSize)
+					.setReadOnly(true)
+					.scroll(ScrollMode.FORWARD_ONLY);
+		} catch (RuntimeException e) {
+			session.close();
+			throw e;
+		}
+
+		Spliterator<Order> spliterator = new Spliterators.AbstractSpliterator<Order>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+
+			private long count;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super Order> action) {
+				if (count > 0 && count % fetchSize == 0) {
+					session.clear();
+				}
+				if (!results.next()) {
+					return false;
+				}
+				count++;
+				action.accept((Order) results.get(0));
+				return true;
+			}
+		};
+
+		return StreamSupport.stream(spliterator, false)
+				.onClose(() -> {
+					results.close();
+					session.close();
+				});
+	}
+
+}
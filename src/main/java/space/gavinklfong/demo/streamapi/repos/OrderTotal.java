@@ -0,0 +1,15 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import lombok.Value;
+
+/**
+ * The total price of the products of an order, summed by the database.
+ */
+@Value
+public class OrderTotal {
+
+	long orderId;
+
+	double total;
+
+}
@@ -0,0 +1,38 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.math.BigDecimal;
+
+/**
+ * Set-based price changes, a single {@code UPDATE ... WHERE category = ?}
+ * instead of loading and saving every product of the category.
+ *
+ * Pending changes are flushed before the update. The persistence context is
+ * not cleared: only the products of the category it manages are detached,
+ * since their prices are stale, and must be read again; other entities stay
+ * managed. The product cache region is evicted right away, Hibernate evicts
+ * it again with the cached query results when the transaction completes; the
+ * change is published as {@link ProductPricesChanged}.
+ */
+public interface ProductBulkRepo {
+
+	/**
+	 * Multiplies the price of every product in {@code category} by
+	 * {@code factor}, rounded half-even to the cent by the database like
+	 * {@link space.gavinklfong.demo.streamapi.models.Money#times(long, BigDecimal)}
+	 * and {@link space.gavinklfong.demo.streamapi.models.Money#percentOff(long, int)}.
+	 *
+	 * @return the number of products updated
+	 */
+	int adjustPriceByCategory(String category, BigDecimal factor);
+
+	/**
+	 * Exercise 3 persisted, e.g. {@code applyDiscount("Toys", 10)}.
+	 */
+	default int applyDiscount(String category, int percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException("percent must be between 0 and 100: " + percent);
+		}
+		return adjustPriceByCategory(category, BigDecimal.valueOf(100 - percent, 2));
+	}
+
+}
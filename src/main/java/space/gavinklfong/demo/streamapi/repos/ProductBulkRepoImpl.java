@@ -0,0 +1,67 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.type.BigDecimalType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Transactional;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+
+public class ProductBulkRepoImpl implements ProductBulkRepo {
+
+	// x = price * factor rounded half-even to the cent: ROUND() rounds half-up,
+	// so the ties that are half-up from an even cent are rounded down instead
+	private static final String ADJUST_PRICE = "update Product p set p.price = "
+			+ "case when p.price * :factor * 100 - floor(p.price * :factor * 50) * 2 = 0.5 "
+			+ "then (floor(p.price * :factor * 100) / 100) "
+			+ "else round(p.price * :factor, 2) end "
+			+ "where p.category = :category";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Override
+	@Transactional
+	public int adjustPriceByCategory(String category, BigDecimal factor) {
+		if (factor.signum() < 0) {
+			throw new IllegalArgumentException("factor must not be negative: " + factor);
+		}
+		entityManager.flush();
+		int updated = entityManager.createQuery(ADJUST_PRICE)
+				.unwrap(org.hibernate.query.Query.class)
+				.setParameter("factor", factor, BigDecimalType.INSTANCE)
+				.setParameter("category", category)
+				.executeUpdate();
+		if (updated > 0) {
+			// Hibernate only evicts the cache region once the transaction completes,
+			// until then the stale products would still be read from it
+			entityManager.getEntityManagerFactory().getCache().evict(Product.class);
+			detachProducts(category);
+			eventPublisher.publishEvent(new ProductPricesChanged(category, factor));
+		}
+		return updated;
+	}
+
+	private void detachProducts(String category) {
+		Map.Entry<Object, EntityEntry>[] entries = entityManager.unwrap(SessionImplementor.class)
+				.getPersistenceContext()
+				.reentrantSafeEntityEntries();
+		for (Map.Entry<Object, EntityEntry> entry : entries) {
+			if (entry.getKey() instanceof Product && category.equals(((Product) entry.getKey()).getCategory())) {
+				entityManager.detach(entry.getKey());
+			}
+		}
+	}
+
+}
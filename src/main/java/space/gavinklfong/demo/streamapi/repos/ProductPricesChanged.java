@@ -0,0 +1,21 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import java.math.BigDecimal;
+
+import lombok.Value;
+
+/**
+ * Published by bulk price updates, which bypass the entity events. Every
+ * product of the category had its price multiplied by {@code factor} and
+ * rounded as {@link space.gavinklfong.demo.streamapi.models.Money#times(long, BigDecimal)}
+ * does, so listeners that know the previous prices work out the new ones
+ * without reading them back.
+ */
+@Value
+public class ProductPricesChanged {
+
+	String category;
+
+	BigDecimal factor;
+
+}
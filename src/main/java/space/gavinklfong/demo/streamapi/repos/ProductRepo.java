@@ -2,13 +2,73 @@ package space.gavinklfong.demo.streamapi.repos;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import space.gavinklfong.demo.streamapi.models.Product;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 @Repository
-public interface ProductRepo extends CrudRepository<Product, Long> {
+public interface ProductRepo extends CrudRepository<Product, Long>, ProductBulkRepo {
+
+	// products are reference data, the query results are kept in the query cache
 
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
 	List<Product> findAll();
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Product> findByCategory(String category);
+
+	// a page of rows, without loading the whole table
+
+	List<Product> findAllBy(Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Product> findByCategoryAndPriceGreaterThan(String category, Double price);
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Product> findByCategoryAndPriceBetween(String category, Double minPrice, Double maxPrice);
+
+	// cheapest first, read from the (category, price) index and ties broken by id
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Product> findByCategoryOrderByPriceAscIdAsc(String category, Pageable pageable);
+
+	@QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+	List<Product> findByPriceBetween(Double minPrice, Double maxPrice);
+
+	// keyset pagination, the page after (afterPrice, afterId) in (price, id) order, not cached as pages are read once
+
+	@Query("select p from Product p where p.category = :category and p.price between :minPrice and :maxPrice "
+			+ "and (p.price > :afterPrice or (p.price = :afterPrice and p.id > :afterId)) "
+			+ "order by p.price, p.id")
+	List<Product> findPageByCategoryAndPriceBetween(@Param("category") String category,
+			@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+			@Param("afterPrice") Double afterPrice, @Param("afterId") Long afterId, Pageable pageable);
+
+	// projections, only the columns needed are selected and no entity is hydrated
+
+	List<ProductSummary> findAllProjectedBy();
+
+	List<ProductSummary> findProjectedByCategory(String category);
+
+	// aggregations pushed down to the database, one row per group
+
+	@Query(value = "select category, listagg(name, char(31)) within group (order by id) as names "
+			+ "from product group by category", nativeQuery = true)
+	List<CategoryNames> findNamesByCategory();
+
+	// the most expensive product of each category, the lowest id among equally priced ones
+
+	@Query(value = "select id, category, name, price from ("
+			+ "select p.*, row_number() over (partition by category order by price desc, id) as rank_in_category "
+			+ "from product p) ranked where rank_in_category = 1", nativeQuery = true)
+	List<Product> findMostExpensiveByCategory();
 }
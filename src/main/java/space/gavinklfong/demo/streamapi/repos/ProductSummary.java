@@ -0,0 +1,20 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import lombok.Value;
+
+/**
+ * The product columns most exercises read. As a class projection, the
+ * derived queries select these columns with a constructor expression, no
+ * entity is hydrated and no per-row proxy is created as for an interface
+ * projection.
+ */
+@Value
+public class ProductSummary {
+
+	String category;
+
+	String name;
+
+	Double price;
+
+}
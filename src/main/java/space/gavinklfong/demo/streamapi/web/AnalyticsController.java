@@ -0,0 +1,278 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import static space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade.await;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import space.gavinklfong.demo.streamapi.analytics.OrderAggregates;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * The exercise queries over HTTP. Lists are keyset-paginated: a page is read
+ * from the index after the (sort key, id) of the last item of the previous
+ * page, passed back as the {@code after} cursor, so deep pages cost the same
+ * as the first one.
+ * <p>
+ * With {@code Accept: application/x-ndjson} the lists are streamed instead,
+ * one JSON object per line, reading the keyset pages one after the other so
+ * the whole result is never held in memory. The persistence context is
+ * cleared after each page.
+ */
+@RestController
+@RequestMapping("/api")
+public class AnalyticsController {
+
+	static final int MAX_LIMIT = 1000;
+	static final int STREAM_PAGE_SIZE = 500;
+	static final int MAX_MONTHS = 120;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Autowired
+	private AsyncRepositoryFacade repos;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	// row counts with exercises 5 and 6, the three repositories are read concurrently
+
+	@GetMapping("/summary")
+	public DataSummary summary() {
+		CompletableFuture<Long> customers = repos.customers(CustomerRepo::count);
+		CompletableFuture<List<OrderView>> mostRecentOrders = repos.orders(repo -> repo.findTop3ByOrderByOrderDateDescIdAsc()
+				.stream()
+				.map(this::orderView)
+				.collect(Collectors.toList()));
+		CompletableFuture<Long> orders = repos.orders(OrderRepo::count);
+		CompletableFuture<List<ProductView>> cheapestBooks = repos.products(repo -> repo
+				.findByCategoryOrderByPriceAscIdAsc("Books", PageRequest.of(0, 3))
+				.stream()
+				.map(ProductView::of)
+				.collect(Collectors.toList()));
+		CompletableFuture<Long> products = repos.products(ProductRepo::count);
+		return new DataSummary(await(customers), await(orders), await(products),
+				await(mostRecentOrders), await(cheapestBooks));
+	}
+
+	// products of a category by price, cursor "price,id"
+
+	@GetMapping(path = "/products", produces = MediaType.APPLICATION_JSON_VALUE)
+	public KeysetPage<ProductView> products(@RequestParam String category,
+			@RequestParam(defaultValue = "0") double minPrice,
+			@RequestParam(defaultValue = "" + Double.MAX_VALUE) double maxPrice,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		checkLimit(limit);
+		Key<Double> key = productKey(after, minPrice);
+		List<Product> products = productRepo.findPageByCategoryAndPriceBetween(category, minPrice, maxPrice,
+				key.value, key.id, PageRequest.of(0, limit));
+		return page(products, limit, ProductView::of, p -> p.getPrice() + "," + p.getId());
+	}
+
+	@GetMapping(path = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody streamProducts(@RequestParam String category,
+			@RequestParam(defaultValue = "0") double minPrice,
+			@RequestParam(defaultValue = "" + Double.MAX_VALUE) double maxPrice,
+			@RequestParam(required = false) String after) {
+		return stream(productKey(after, minPrice),
+				(key, size) -> productRepo.findPageByCategoryAndPriceBetween(category, minPrice, maxPrice,
+						key.value, key.id, PageRequest.of(0, size)),
+				p -> new Key<>(p.getPrice(), p.getId()),
+				ProductView::of);
+	}
+
+	// orders between two dates, inclusive, by date, cursor "date,id"
+
+	@GetMapping(path = "/orders", produces = MediaType.APPLICATION_JSON_VALUE)
+	public KeysetPage<OrderView> orders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String after,
+			@RequestParam(defaultValue = "50") int limit) {
+		checkLimit(limit);
+		Key<LocalDate> key = orderKey(after, from);
+		List<Order> orders = orderRepo.findPageByOrderDateBetween(from, to, key.value, key.id, PageRequest.of(0, limit));
+		return page(orders, limit, this::orderView, o -> o.getOrderDate() + "," + o.getId());
+	}
+
+	@GetMapping(path = "/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public StreamingResponseBody streamOrders(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+			@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+			@RequestParam(required = false) String after) {
+		return stream(orderKey(after, from),
+				(key, size) -> orderRepo.findPageByOrderDateBetween(from, to, key.value, key.id, PageRequest.of(0, size)),
+				o -> new Key<>(o.getOrderDate(), o.getId()),
+				this::orderView);
+	}
+
+	// aggregates
+
+	@GetMapping("/revenue/monthly")
+	public List<MonthlyRevenue> monthlyRevenue(@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth from,
+			@RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth to) {
+		long months = from.until(to, ChronoUnit.MONTHS);
+		if (months < 0 || months >= MAX_MONTHS) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"from must not be after to, and at most " + MAX_MONTHS + " months apart");
+		}
+		checkLoaded();
+		List<MonthlyRevenue> revenue = new ArrayList<>();
+		for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+			revenue.add(new MonthlyRevenue(month, aggregates.totalPrice(month)));
+		}
+		return revenue;
+	}
+
+	@GetMapping("/categories/maximum")
+	public List<CategoryMaximum> categoryMaxima() {
+		checkLoaded();
+		Map<String, Long> productIds = aggregates.mostExpensiveProductByCategory();
+		Map<Long, Product> products = new HashMap<>();
+		productRepo.findAllById(productIds.values()).forEach(p -> products.put(p.getId(), p));
+		return productIds.entrySet()
+				.stream()
+				.filter(e -> products.containsKey(e.getValue()))
+				.map(e -> new CategoryMaximum(e.getKey(), ProductView.of(products.get(e.getValue()))))
+				.sorted(Comparator.comparing(CategoryMaximum::getCategory))
+				.collect(Collectors.toList());
+	}
+
+	private OrderView orderView(Order order) {
+		OptionalDouble total = aggregates.orderTotal(order.getId());
+		return OrderView.of(order, total.isPresent() ? total.getAsDouble() : null);
+	}
+
+	private static <E, V> KeysetPage<V> page(List<E> items, int limit, Function<E, V> view, Function<E, String> cursor) {
+		String next = items.size() < limit ? null : cursor.apply(items.get(items.size() - 1));
+		return new KeysetPage<>(items.stream().map(view).collect(Collectors.toList()), next);
+	}
+
+	private <E, K> StreamingResponseBody stream(Key<K> start, BiFunction<Key<K>, Integer, List<E>> pages,
+			Function<E, Key<K>> key, Function<E, ?> view) {
+		return out -> {
+			Key<K> after = start;
+			List<E> items;
+			do {
+				items = pages.apply(after, STREAM_PAGE_SIZE);
+				for (E item : items) {
+					out.write(objectMapper.writeValueAsBytes(view.apply(item)));
+					out.write('\n');
+				}
+				out.flush();
+				if (!items.isEmpty()) {
+					after = key.apply(items.get(items.size() - 1));
+				}
+				// with open-in-view the pages share the request's persistence context, don't let it grow
+				entityManager.clear();
+			} while (items.size() == STREAM_PAGE_SIZE);
+		};
+	}
+
+	// the first page starts after (lowest key, id 0), ids start at 1
+
+	private static Key<Double> productKey(String after, double minPrice) {
+		if (after == null) {
+			return new Key<>(minPrice, 0L);
+		}
+		try {
+			return new Key<>(Double.valueOf(cursorKey(after)), cursorId(after));
+		} catch (NumberFormatException e) {
+			throw badCursor(after);
+		}
+	}
+
+	private static Key<LocalDate> orderKey(String after, LocalDate from) {
+		if (after == null) {
+			return new Key<>(from, 0L);
+		}
+		try {
+			return new Key<>(LocalDate.parse(cursorKey(after)), cursorId(after));
+		} catch (DateTimeParseException | NumberFormatException e) {
+			throw badCursor(after);
+		}
+	}
+
+	private static String cursorKey(String cursor) {
+		int comma = cursor.lastIndexOf(',');
+		if (comma < 0) {
+			throw badCursor(cursor);
+		}
+		return cursor.substring(0, comma);
+	}
+
+	private static long cursorId(String cursor) {
+		return Long.parseLong(cursor.substring(cursor.lastIndexOf(',') + 1));
+	}
+
+	private static ResponseStatusException badCursor(String cursor) {
+		return new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor: " + cursor);
+	}
+
+	private static void checkLimit(int limit) {
+		if (limit < 1 || limit > MAX_LIMIT) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be between 1 and " + MAX_LIMIT);
+		}
+	}
+
+	private void checkLoaded() {
+		if (!aggregates.isLoaded()) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "aggregates are loading");
+		}
+	}
+
+	private static class Key<K> {
+
+		private final K value;
+		private final long id;
+
+		Key(K value, long id) {
+			this.value = value;
+			this.id = id;
+		}
+
+	}
+
+}
@@ -0,0 +1,11 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import lombok.Value;
+
+@Value
+public class CategoryMaximum {
+
+	String category;
+	ProductView product;
+
+}
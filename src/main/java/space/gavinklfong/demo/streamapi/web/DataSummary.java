@@ -0,0 +1,16 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import java.util.List;
+
+import lombok.Value;
+
+@Value
+public class DataSummary {
+
+	long customers;
+	long orders;
+	long products;
+	List<OrderView> mostRecentOrders;
+	List<ProductView> cheapestBooks;
+
+}
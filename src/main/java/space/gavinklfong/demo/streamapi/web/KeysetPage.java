@@ -0,0 +1,17 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * A page of a keyset-paginated result, {@code next} is the cursor to pass as
+ * {@code after} for the following page and is null on the last page.
+ */
+@Value
+public class KeysetPage<T> {
+
+	List<T> items;
+	String next;
+
+}
@@ -0,0 +1,13 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import java.time.YearMonth;
+
+import lombok.Value;
+
+@Value
+public class MonthlyRevenue {
+
+	YearMonth month;
+	double total;
+
+}
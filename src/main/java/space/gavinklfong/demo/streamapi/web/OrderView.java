@@ -0,0 +1,29 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import java.time.LocalDate;
+
+import lombok.Value;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+
+/**
+ * An order without its products, the total price comes from the order
+ * aggregates and is null while they are loading.
+ */
+@Value
+public class OrderView {
+
+	Long id;
+	LocalDate orderDate;
+	LocalDate deliveryDate;
+	String status;
+	Long customerId;
+	Double total;
+
+	public static OrderView of(Order order, Double total) {
+		// the id of a lazy customer proxy is read without loading the customer
+		return new OrderView(order.getId(), order.getOrderDate(), order.getDeliveryDate(), order.getStatus(),
+				order.getCustomer() == null ? null : order.getCustomer().getId(), total);
+	}
+
+}
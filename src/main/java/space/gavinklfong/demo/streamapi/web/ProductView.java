@@ -0,0 +1,19 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import lombok.Value;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+
+@Value
+public class ProductView {
+
+	Long id;
+	String name;
+	String category;
+	Double price;
+
+	public static ProductView of(Product product) {
+		return new ProductView(product.getId(), product.getName(), product.getCategory(), product.getPrice());
+	}
+
+}
@@ -260,3 +260,7 @@ INSERT INTO order_product_relationship (order_id, product_id) VALUES (49, 12);
 INSERT INTO order_product_relationship (order_id, product_id) VALUES (49, 17);
 INSERT INTO order_product_relationship (order_id, product_id) VALUES (50, 15);
 INSERT INTO order_product_relationship (order_id, product_id) VALUES (50, 16);
+-- the pooled id generators allocate ids (value - 49) to value, continue after the rows above
+ALTER SEQUENCE customer_seq RESTART WITH 60;
+ALTER SEQUENCE product_seq RESTART WITH 80;
+ALTER SEQUENCE product_order_seq RESTART WITH 100;
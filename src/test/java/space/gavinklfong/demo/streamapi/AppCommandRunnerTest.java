@@ -0,0 +1,49 @@
+package space.gavinklfong.demo.streamapi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@DataJpaTest(properties = { "startup.report.enabled=true", "startup.report.samples=2" })
+@Import({ AppCommandRunner.class, AsyncRepositoryFacade.class })
+public class AppCommandRunnerTest {
+
+	@Autowired
+	private AppCommandRunner runner;
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Test
+	@DisplayName("The startup report has the row counts and only the sampled rows")
+	public void report() {
+		List<String> lines = runner.report();
+
+		assertEquals(3 * 3 + 1, lines.size());
+		assertEquals("Customers: " + customerRepo.count(), lines.get(0));
+		assertTrue(lines.get(1).startsWith("  Customer(id=1,"));
+		assertEquals("Orders: " + orderRepo.count(), lines.get(3));
+		assertTrue(lines.get(4).startsWith("  Order(id=1,"));
+		assertEquals("Products: " + productRepo.count(), lines.get(6));
+		assertTrue(lines.get(9).startsWith("startup report built in"));
+	}
+
+}
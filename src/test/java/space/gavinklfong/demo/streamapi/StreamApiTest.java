@@ -24,9 +24,12 @@ import lombok.extern.slf4j.Slf4j;
 import space.gavinklfong.demo.streamapi.models.Customer;
 import space.gavinklfong.demo.streamapi.models.Order;
 import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.CustomerOrderId;
 import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
 import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderTotal;
 import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductSummary;
 
 @DataJpaTest
 public class StreamApiTest {
@@ -316,6 +319,22 @@ public class StreamApiTest {
 		log.info(result.toString());
 	}
 
+	@Test
+	@DisplayName("Obtain a data map of customer_id and list of order_id(s) (from a projection)")
+	public void exercise12b() {
+		long startTime = System.currentTimeMillis();
+		HashMap<Long, List<Long>> result = orderRepo.findAllCustomerOrderIds()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								CustomerOrderId::getCustomerId,
+								HashMap::new,
+								Collectors.mapping(CustomerOrderId::getOrderId, Collectors.toList())));
+		long endTime = System.currentTimeMillis();
+		log.info(String.format("exercise 12b - execution time: %1$d ms", (endTime - startTime)));
+		log.info(result.toString());
+	}
+
 	@Test
 	@DisplayName("Obtain a data map with order and its total price")
 	public void exercise13() {
@@ -352,6 +371,19 @@ public class StreamApiTest {
 		log.info(result.toString());
 	}
 
+	@Test
+	@DisplayName("Obtain a data map with order and its total price (summed in the database)")
+	public void exercise13b() {
+		long startTime = System.currentTimeMillis();
+		Map<Long, Double> result = orderRepo.findAllOrderTotals()
+				.stream()
+				.collect(Collectors.toMap(OrderTotal::getOrderId, OrderTotal::getTotal));
+
+		long endTime = System.currentTimeMillis();
+		log.info(String.format("exercise 13b - execution time: %1$d ms", (endTime - startTime)));
+		log.info(result.toString());
+	}
+
 	@Test
 	@DisplayName("Obtain a data map of product name by category")
 	public void exercise14() {
@@ -370,6 +402,23 @@ public class StreamApiTest {
 		log.info(result.toString());
 	}
 
+	@Test
+	@DisplayName("Obtain a data map of product name by category (from a projection)")
+	public void exercise14a() {
+		long startTime = System.currentTimeMillis();
+		Map<String, List<String>> result = productRepo.findAllProjectedBy()
+				.stream()
+				.collect(
+						Collectors.groupingBy(
+								ProductSummary::getCategory,
+								Collectors.mapping(ProductSummary::getName, Collectors.toList()))
+						);
+
+		long endTime = System.currentTimeMillis();
+		log.info(String.format("exercise 14a - execution time: %1$d ms", (endTime - startTime)));
+		log.info(result.toString());
+	}
+
 	@Test
 	@DisplayName("Get the most expensive product per category")
 	void exercise15() {
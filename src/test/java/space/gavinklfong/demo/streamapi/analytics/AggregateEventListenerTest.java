@@ -0,0 +1,207 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class AggregateEventListenerTest {
+
+	private static final YearMonth FEB_2021 = YearMonth.of(2021, 2);
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Autowired
+	private OrderAggregatesLoader loader;
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	@DisplayName("Committed writes are applied to the aggregates, rolled back ones are not")
+	public void committedWritesUpdateAggregates() {
+		assertTrue(aggregates.isLoaded());
+		double febTotal = aggregates.totalPrice(FEB_2021);
+
+		Product product = transactionTemplate.execute(tx -> productRepo.save(Product.builder()
+				.name("aggregate test book")
+				.category("Books")
+				.price(999.99)
+				.build()));
+		Order order = transactionTemplate.execute(tx -> orderRepo.save(Order.builder()
+				.orderDate(LocalDate.of(2021, 2, 15))
+				.customer(customerRepo.findById(1L).get())
+				.products(new HashSet<>(Set.of(product)))
+				.build()));
+
+		assertEquals(febTotal + 999.99, aggregates.totalPrice(FEB_2021), 0.001);
+		assertEquals(999.99, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+		assertEquals(Optional.of(product.getId()), aggregates.mostExpensiveProduct("Books"));
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			productRepo.save(productRepo.findById(product.getId()).get().withPrice(10D));
+			tx.setRollbackOnly();
+		});
+		assertEquals(999.99, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx ->
+				productRepo.save(productRepo.findById(product.getId()).get().withPrice(10D)));
+		assertEquals(10, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+		assertEquals(febTotal + 10, aggregates.totalPrice(FEB_2021), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			Order saved = orderRepo.findById(order.getId()).get();
+			saved.getProducts().clear();
+		});
+		assertEquals(0, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			orderRepo.deleteById(order.getId());
+			productRepo.deleteById(product.getId());
+		});
+		assertTrue(aggregates.orderTotal(order.getId()).isEmpty());
+		assertEquals(febTotal, aggregates.totalPrice(FEB_2021), 0.001);
+	}
+
+	@Test
+	@DisplayName("The writes of a transaction are collected by one synchronization")
+	public void oneSynchronizationPerTransaction() {
+		double febTotal = aggregates.totalPrice(FEB_2021);
+
+		long[] orderIds = transactionTemplate.execute(tx -> {
+			int synchronizations = TransactionSynchronizationManager.getSynchronizations().size();
+			Product product = productRepo.save(Product.builder()
+					.name("batched test book")
+					.category("Books")
+					.price(20D)
+					.build());
+			entityManager.flush();
+			int withListeners = TransactionSynchronizationManager.getSynchronizations().size();
+			long[] ids = new long[10];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = orderRepo.save(Order.builder()
+						.orderDate(LocalDate.of(2021, 2, 16))
+						.customer(customerRepo.findById(1L).get())
+						.products(new HashSet<>(Set.of(product)))
+						.build()).getId();
+				entityManager.flush();
+			}
+			productRepo.save(product.withPrice(30D));
+			entityManager.flush();
+			assertTrue(withListeners > synchronizations);
+			assertEquals(withListeners, TransactionSynchronizationManager.getSynchronizations().size());
+			assertTrue(aggregates.orderTotal(ids[0]).isEmpty());
+			return ids;
+		});
+
+		assertEquals(30, aggregates.orderTotal(orderIds[0]).getAsDouble(), 0.001);
+		assertEquals(febTotal + 300, aggregates.totalPrice(FEB_2021), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			for (long id : orderIds) {
+				orderRepo.deleteById(id);
+			}
+		});
+		assertEquals(febTotal, aggregates.totalPrice(FEB_2021), 0.001);
+	}
+
+	@Test
+	@DisplayName("Removing the product collection of an order empties its total")
+	public void productCollectionRemoved() {
+		double febTotal = aggregates.totalPrice(FEB_2021);
+		Product product = transactionTemplate.execute(tx -> productRepo.save(Product.builder()
+				.name("removed collection test book")
+				.category("Books")
+				.price(70D)
+				.build()));
+		Order order = transactionTemplate.execute(tx -> orderRepo.save(Order.builder()
+				.orderDate(LocalDate.of(2021, 2, 19))
+				.customer(customerRepo.findById(1L).get())
+				.products(new HashSet<>(Set.of(product)))
+				.build()));
+		assertEquals(febTotal + 70, aggregates.totalPrice(FEB_2021), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx -> orderRepo.findById(order.getId()).get().setProducts(null));
+
+		assertEquals(0, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+		assertEquals(febTotal, aggregates.totalPrice(FEB_2021), 0.001);
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			orderRepo.deleteById(order.getId());
+			productRepo.deleteById(product.getId());
+		});
+	}
+
+	@Test
+	@DisplayName("Orders without a customer survive a rebuild of the aggregates")
+	public void customerlessOrderSurvivesRebuild() {
+		LocalDate date = LocalDate.of(2021, 2, 17);
+		double febTotal = aggregates.totalPrice(FEB_2021);
+
+		Product product = transactionTemplate.execute(tx -> productRepo.save(Product.builder()
+				.name("customerless test book")
+				.category("Books")
+				.price(45D)
+				.build()));
+		Order order = transactionTemplate.execute(tx -> orderRepo.save(Order.builder()
+				.orderDate(date)
+				.products(new HashSet<>(Set.of(product)))
+				.build()));
+		long[] orderIds = aggregates.orderIds(date);
+		assertTrue(Arrays.stream(orderIds).anyMatch(id -> id == order.getId()));
+
+		loader.load();
+
+		assertEquals(45, aggregates.orderTotal(order.getId()).getAsDouble(), 0.001);
+		assertEquals(febTotal + 45, aggregates.totalPrice(FEB_2021), 0.001);
+		assertArrayEquals(sorted(orderIds), sorted(aggregates.orderIds(date)));
+
+		transactionTemplate.executeWithoutResult(tx -> {
+			orderRepo.deleteById(order.getId());
+			productRepo.deleteById(product.getId());
+		});
+		assertEquals(febTotal, aggregates.totalPrice(FEB_2021), 0.001);
+	}
+
+	private static long[] sorted(long[] ids) {
+		long[] copy = ids.clone();
+		Arrays.sort(copy);
+		return copy;
+	}
+
+}
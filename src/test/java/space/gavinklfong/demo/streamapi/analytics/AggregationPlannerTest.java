@@ -0,0 +1,91 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import space.gavinklfong.demo.streamapi.analytics.AggregationPlanner.Plan;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@DataJpaTest
+public class AggregationPlannerTest {
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private SimpleMeterRegistry registry;
+
+	private AggregationPlanner planner;
+
+	@BeforeEach
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		planner = new AggregationPlanner(orderRepo, productRepo, transactionManager, 40, registry);
+	}
+
+	@Test
+	@DisplayName("Grouping in the database gives the groups of the streams")
+	public void pushdownMatchesInMemory() {
+		Map<Long, Long> orderCounts = planner.orderCountByCustomer(Plan.IN_MEMORY);
+		assertFalse(orderCounts.isEmpty());
+		assertEquals(orderCounts, planner.orderCountByCustomer(Plan.PUSHDOWN));
+
+		Map<Long, Double> totals = planner.orderTotals(Plan.IN_MEMORY);
+		Map<Long, Double> pushedTotals = planner.orderTotals(Plan.PUSHDOWN);
+		assertEquals(totals.keySet(), pushedTotals.keySet());
+		totals.forEach((id, total) -> assertEquals(total, pushedTotals.get(id), 0.001));
+
+		Map<String, List<String>> names = planner.productNamesByCategory(Plan.IN_MEMORY);
+		assertFalse(names.isEmpty());
+		assertEquals(names, planner.productNamesByCategory(Plan.PUSHDOWN));
+
+		Map<String, Product> mostExpensive = planner.mostExpensiveProductByCategory(Plan.IN_MEMORY);
+		assertEquals(names.keySet(), mostExpensive.keySet());
+		assertEquals(mostExpensive, planner.mostExpensiveProductByCategory(Plan.PUSHDOWN));
+	}
+
+	@Test
+	@DisplayName("Aggregations are pushed down above the row threshold")
+	public void planByRowCount() {
+		assertEquals(Plan.IN_MEMORY, planner.plan(40));
+		assertEquals(Plan.PUSHDOWN, planner.plan(41));
+
+		long orders = orderRepo.count();
+		long products = productRepo.count();
+		planner = new AggregationPlanner(orderRepo, productRepo, transactionManager, Math.min(orders, products),
+				registry);
+		planner.orderTotals();
+		planner.mostExpensiveProductByCategory();
+
+		Plan orderPlan = orders > products ? Plan.PUSHDOWN : Plan.IN_MEMORY;
+		Plan productPlan = products > orders ? Plan.PUSHDOWN : Plan.IN_MEMORY;
+		assertEquals(1, registry.get(AggregationPlanner.PLANS)
+				.tags("aggregation", "orderTotals", "plan", orderPlan.name().toLowerCase())
+				.counter()
+				.count());
+		assertEquals(1, registry.get(AggregationPlanner.PLANS)
+				.tags("aggregation", "mostExpensiveProductByCategory", "plan", productPlan.name().toLowerCase())
+				.counter()
+				.count());
+	}
+
+}
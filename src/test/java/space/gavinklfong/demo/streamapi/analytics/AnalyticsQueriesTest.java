@@ -0,0 +1,120 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class AnalyticsQueriesTest {
+
+	@Autowired
+	private AnalyticsQueries queries;
+
+	@Autowired
+	private QueryResultCache cache;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@BeforeEach
+	public void setUp() {
+		cache.clear();
+	}
+
+	@Test
+	@DisplayName("Repeated questions are answered from the cache")
+	public void repeatedQueriesAreCached() {
+		LocalDate day = LocalDate.of(2021, 3, 15);
+		List<Order> orders = queries.ordersOn(day);
+
+		assertFalse(orders.isEmpty());
+		assertSame(orders, queries.ordersOn(day));
+		assertEquals(transactionTemplate.execute(tx -> orderRepo.findByOrderDate(day)
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toSet())),
+				orders.stream().map(Order::getId).collect(Collectors.toSet()));
+		assertTrue(orders.get(0).getProducts().size() > 0);
+		assertSame(queries.productsOrderedByTier(2, LocalDate.of(2021, 2, 1), LocalDate.of(2021, 4, 1)),
+				queries.productsOrderedByTier(2, LocalDate.of(2021, 2, 1), LocalDate.of(2021, 4, 1)));
+	}
+
+	@Test
+	@DisplayName("Committed writes invalidate the results, rolled back ones do not")
+	public void committedWritesInvalidate() {
+		List<Product> books = queries.productsPricedAbove("Books", 100D);
+		Product book = productRepo.findByCategory("Books").get(0);
+		double price = book.getPrice();
+		Set<Long> ids = books.stream().map(Product::getId).collect(Collectors.toSet());
+		double total = queries.totalPrice(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28));
+
+		transactionTemplate.execute(tx -> {
+			productRepo.save(book.withPrice(price + 1000));
+			tx.setRollbackOnly();
+			return null;
+		});
+		assertSame(books, queries.productsPricedAbove("Books", 100D));
+
+		try {
+			transactionTemplate.execute(tx -> productRepo.save(productRepo.findById(book.getId()).get()
+					.withPrice(price + 1000)));
+			List<Product> updated = queries.productsPricedAbove("Books", 100D);
+			assertNotSame(books, updated);
+			assertTrue(updated.stream().anyMatch(p -> p.getId().equals(book.getId())));
+			assertEquals(ids.contains(book.getId()) ? ids.size() : ids.size() + 1, updated.size());
+		} finally {
+			transactionTemplate.execute(tx -> productRepo.save(productRepo.findById(book.getId()).get()
+					.withPrice(price)));
+		}
+		assertEquals(total, queries.totalPrice(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)), 0.001);
+	}
+
+	@Test
+	@DisplayName("Orders without a customer are part of the results")
+	public void customerlessOrders() {
+		LocalDate day = LocalDate.of(2021, 2, 18);
+		double total = queries.totalPrice(day, day);
+		int count = queries.ordersOn(day).size();
+
+		Product book = productRepo.findByCategory("Books").get(0);
+		Order order = transactionTemplate.execute(tx -> orderRepo.save(Order.builder()
+				.orderDate(day)
+				.products(new HashSet<>(Set.of(productRepo.findById(book.getId()).get())))
+				.build()));
+		try {
+			List<Order> orders = queries.ordersOn(day);
+			assertEquals(count + 1, orders.size());
+			assertTrue(orders.stream().anyMatch(o -> o.getId().equals(order.getId()) && o.getCustomer() == null));
+			assertEquals(total + book.getPrice(), queries.totalPrice(day, day), 0.001);
+		} finally {
+			transactionTemplate.executeWithoutResult(tx -> orderRepo.deleteById(order.getId()));
+		}
+	}
+
+}
@@ -0,0 +1,239 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Checks the snapshot queries against the stream pipelines of StreamApiTest.
+ */
+@DataJpaTest
+public class ColumnarSnapshotTest {
+
+	private static final LocalDate FEB_01 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate FEB_28 = LocalDate.of(2021, 2, 28);
+	private static final LocalDate MAR_15 = LocalDate.of(2021, 3, 15);
+	private static final LocalDate APR_01 = LocalDate.of(2021, 4, 1);
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	private ColumnarSnapshot snapshot;
+	private List<Product> products;
+	private List<Order> orders;
+
+	@BeforeEach
+	public void setUp() {
+		products = productRepo.findAll();
+		orders = orderRepo.findAllWithProducts();
+		snapshot = ColumnarSnapshot.of(customerRepo.findAll(), products, orders);
+	}
+
+	@Test
+	@DisplayName("exercise 1 - Books with price > 100")
+	public void exercise1() {
+		Set<Long> expected = products.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.filter(p -> p.getPrice() > 100)
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+
+		assertEquals(expected, toSet(snapshot.productsByCategoryAbovePrice("books", 100)));
+	}
+
+	@Test
+	@DisplayName("exercise 2 - orders with a Baby product")
+	public void exercise2() {
+		Set<Long> expected = orders.stream()
+				.filter(o -> o.getProducts().stream().anyMatch(p -> p.getCategory().equalsIgnoreCase("Baby")))
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+
+		assertEquals(expected, toSet(snapshot.ordersWithProductCategory("Baby")));
+		assertEquals(expected.size(), snapshot.countOrdersWithProductCategory("BABY"));
+		assertEquals(0, snapshot.ordersWithProductCategory("Garden").length);
+	}
+
+	@Test
+	@DisplayName("exercise 4 - products ordered by tier 2 customers between 01-Feb-2021 and 01-Apr-2021")
+	public void exercise4() {
+		Set<Long> expected = orders.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(APR_01) <= 0)
+				.flatMap(o -> o.getProducts().stream())
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+
+		long[] result = snapshot.productsOrderedByTierBetween(2, FEB_01, APR_01);
+		assertEquals(expected.size(), result.length);
+		assertEquals(expected, toSet(result));
+	}
+
+	@Test
+	@DisplayName("exercise 5 and 6 - cheapest Books and most recent orders")
+	public void exercise5And6() {
+		long[] cheapest = products.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.sorted(Comparator.comparing(Product::getPrice))
+				.limit(3)
+				.mapToLong(Product::getId)
+				.toArray();
+		assertArrayEquals(cheapest, snapshot.cheapestProducts("Books", 3));
+
+		LocalDate[] recent = orders.stream()
+				.map(Order::getOrderDate)
+				.sorted(Comparator.reverseOrder())
+				.limit(3)
+				.toArray(LocalDate[]::new);
+		Map<Long, LocalDate> orderDates = orders.stream()
+				.collect(Collectors.toMap(Order::getId, Order::getOrderDate));
+		assertArrayEquals(recent, Arrays.stream(snapshot.mostRecentOrders(3))
+				.mapToObj(orderDates::get)
+				.toArray(LocalDate[]::new));
+	}
+
+	@Test
+	@DisplayName("exercise 7, 8 and 9 - products and prices of orders by date")
+	public void exercise7To9() {
+		Set<Long> ordered = orders.stream()
+				.filter(o -> o.getOrderDate().isEqual(MAR_15))
+				.flatMap(o -> o.getProducts().stream())
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+		assertEquals(ordered, toSet(snapshot.productsOrderedOn(MAR_15)));
+
+		double total = orders.stream()
+				.filter(o -> !o.getOrderDate().isBefore(FEB_01) && !o.getOrderDate().isAfter(FEB_28))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+		assertEquals(total, snapshot.totalPriceBetween(FEB_01, FEB_28), 0.001);
+
+		double average = orders.stream()
+				.filter(o -> o.getOrderDate().isEqual(MAR_15))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.average().getAsDouble();
+		assertEquals(average, snapshot.averagePriceOn(MAR_15).getAsDouble(), 0.001);
+	}
+
+	@Test
+	@DisplayName("exercise 10 - statistics of Books")
+	public void exercise10() {
+		DoubleSummaryStatistics expected = products.stream()
+				.filter(p -> p.getCategory().equalsIgnoreCase("Books"))
+				.mapToDouble(Product::getPrice)
+				.summaryStatistics();
+
+		DoubleSummaryStatistics result = snapshot.priceStatistics("Books");
+		assertEquals(expected.getCount(), result.getCount());
+		assertEquals(expected.getSum(), result.getSum(), 0.001);
+		assertEquals(expected.getMax(), result.getMax());
+	}
+
+	@Test
+	@DisplayName("exercise 11, 12 and 13 - per order and per customer maps")
+	public void exercise11To13() {
+		long[] orderIds = snapshot.orderIds();
+		int[] counts = snapshot.productCounts();
+		double[] totals = snapshot.orderTotals();
+		for (Order order : orders) {
+			int row = indexOf(orderIds, order.getId());
+			assertEquals(order.getProducts().size(), counts[row]);
+			assertEquals(order.getProducts().stream().mapToDouble(Product::getPrice).sum(), totals[row], 0.001);
+		}
+
+		Map<Long, Set<Long>> expected = orders.stream()
+				.collect(Collectors.groupingBy(o -> o.getCustomer().getId(),
+						Collectors.mapping(Order::getId, Collectors.toSet())));
+		Map<Long, Set<Long>> result = snapshot.orderIdsByCustomer().entrySet()
+				.stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, e -> toSet(e.getValue())));
+		assertEquals(expected, result);
+	}
+
+	@Test
+	@DisplayName("exercise 14 and 15 - per category maps")
+	public void exercise14And15() {
+		Map<String, Set<String>> names = products.stream()
+				.collect(Collectors.groupingBy(Product::getCategory,
+						Collectors.mapping(Product::getName, Collectors.toSet())));
+		assertEquals(names, snapshot.productNamesByCategory().entrySet()
+				.stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, e -> Set.copyOf(e.getValue()))));
+
+		Map<String, Long> mostExpensive = products.stream()
+				.collect(Collectors.groupingBy(Product::getCategory,
+						Collectors.collectingAndThen(
+								Collectors.maxBy(Comparator.comparing(Product::getPrice)),
+								p -> p.map(Product::getId).orElse(null))));
+		assertEquals(mostExpensive, snapshot.mostExpensiveProductByCategory());
+	}
+
+	@Test
+	@DisplayName("Orders without customer or date and products without category are kept out of the groups")
+	public void missingValues() {
+		Customer customer = Customer.builder().id(1L).name("tier 1").tier(1).build();
+		Product book = Product.builder().id(1L).name("book").category("Books").price(10D).build();
+		Product unknown = Product.builder().id(2L).name("unknown").price(20D).build();
+		ColumnarSnapshot snapshot = ColumnarSnapshot.of(List.of(customer), List.of(book, unknown), List.of(
+				Order.builder().id(1L).orderDate(FEB_01).customer(customer).products(Set.of(book)).build(),
+				Order.builder().id(2L).orderDate(FEB_01).products(Set.of(unknown)).build(),
+				Order.builder().id(3L).customer(customer).products(Set.of(book, unknown)).build()));
+
+		assertArrayEquals(new long[] { 1 }, snapshot.productsByCategory("Books"));
+		assertEquals(Map.of("Books", 1L), snapshot.mostExpensiveProductByCategory());
+		assertEquals(Set.of("Books"), snapshot.productNamesByCategory().keySet());
+		assertEquals(Set.of(1L, 3L), toSet(snapshot.ordersWithProductCategory("Books")));
+		assertEquals(0, snapshot.countProductsByCategory(null));
+
+		assertEquals(Set.of(1L), snapshot.orderIdsByCustomer().keySet());
+		assertEquals(Set.of(1L, 3L), toSet(snapshot.orderIdsByCustomer().get(1L)));
+		assertEquals(Set.of(1L), toSet(snapshot.productsOrderedByTierBetween(1, FEB_01, APR_01)));
+		assertEquals(30, snapshot.totalPriceBetween(FEB_01, FEB_28), 0.001);
+		assertArrayEquals(new long[] { 1, 2, 3 }, snapshot.mostRecentOrders(3));
+	}
+
+	private static Set<Long> toSet(long[] values) {
+		return Arrays.stream(values).boxed().collect(Collectors.toSet());
+	}
+
+	private static int indexOf(long[] values, long value) {
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] == value) {
+				return i;
+			}
+		}
+		throw new AssertionError("missing " + value);
+	}
+
+}
@@ -0,0 +1,92 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DateIndexTest {
+
+	private static final LocalDate START = LocalDate.of(2021, 1, 1);
+
+	@Test
+	@DisplayName("Range and equality lookups return the same orders as a scan")
+	public void sameAsScan() {
+		Random random = new Random(42);
+		List<Dated> values = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			values.add(new Dated(i, START.plusDays(random.nextInt(365))));
+		}
+		DateIndex<Dated> index = DateIndex.of(values, Dated::getDate);
+
+		assertEquals(values.size(), index.size());
+		for (int i = 0; i < 200; i++) {
+			LocalDate from = START.plusDays(random.nextInt(400) - 20);
+			LocalDate to = from.plusDays(random.nextInt(60));
+			List<Dated> expected = scan(values, from, to);
+			assertEquals(expected, sorted(index.between(from, to)));
+			assertEquals(expected.size(), index.countBetween(from, to));
+			assertEquals(scan(values, from, from), index.on(from));
+		}
+		assertTrue(index.between(START.plusDays(10), START.plusDays(9)).isEmpty());
+	}
+
+	@Test
+	@DisplayName("Values of a day keep insertion order and can be removed")
+	public void addAndRemove() {
+		DateIndex<Long> index = new DateIndex<>();
+		index.add(LocalDate.of(2021, 3, 15), 3L);
+		index.add(LocalDate.of(2021, 2, 1), 1L);
+		index.add(LocalDate.of(2021, 3, 15), 2L);
+
+		assertEquals(List.of(3L, 2L), index.on(LocalDate.of(2021, 3, 15)));
+		assertEquals(List.of(1L, 3L, 2L), index.between(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 4, 1)));
+
+		assertTrue(index.remove(LocalDate.of(2021, 3, 15), 3L));
+		assertFalse(index.remove(LocalDate.of(2021, 3, 15), 3L));
+		assertFalse(index.remove(LocalDate.of(2021, 3, 16), 2L));
+		assertEquals(List.of(2L), index.on(LocalDate.of(2021, 3, 15)));
+		assertEquals(2, index.size());
+
+		assertEquals(2, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+		index.clear();
+		assertEquals(0, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+	}
+
+	private static List<Dated> scan(List<Dated> values, LocalDate from, LocalDate to) {
+		return values.stream()
+				.filter(v -> !v.date.isBefore(from) && !v.date.isAfter(to))
+				.collect(Collectors.toList());
+	}
+
+	private static List<Dated> sorted(List<Dated> values) {
+		values.sort(Comparator.comparingInt(v -> v.id));
+		return values;
+	}
+
+	private static class Dated {
+
+		private final int id;
+		private final LocalDate date;
+
+		Dated(int id, LocalDate date) {
+			this.id = id;
+			this.date = date;
+		}
+
+		LocalDate getDate() {
+			return date;
+		}
+
+	}
+
+}
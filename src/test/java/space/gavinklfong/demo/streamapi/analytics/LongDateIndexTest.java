@@ -0,0 +1,97 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LongDateIndexTest {
+
+	private static final LocalDate START = LocalDate.of(2021, 1, 1);
+
+	@Test
+	@DisplayName("Lookups return the same ids as a scan while ids are added, moved and removed")
+	public void sameAsScan() {
+		Random random = new Random(42);
+		Map<Long, LocalDate> dates = new HashMap<>();
+		LongDateIndex index = new LongDateIndex();
+		for (long id = 0; id < 2000; id++) {
+			LocalDate date = START.plusDays(random.nextInt(60));
+			dates.put(id, date);
+			index.add(date, id);
+		}
+		for (int i = 0; i < 3000; i++) {
+			long id = random.nextInt(2000);
+			LocalDate date = dates.remove(id);
+			if (date != null) {
+				assertTrue(index.remove(date, id));
+			}
+			if (random.nextBoolean()) {
+				date = START.plusDays(random.nextInt(60));
+				dates.put(id, date);
+				index.add(date, id);
+			}
+		}
+
+		assertEquals(dates.size(), index.size());
+		for (int i = 0; i < 100; i++) {
+			LocalDate from = START.plusDays(random.nextInt(70) - 5);
+			LocalDate to = from.plusDays(random.nextInt(20));
+			long[] expected = scan(dates, from, to);
+			assertArrayEquals(expected, sorted(index.between(from, to)));
+			assertEquals(expected.length, index.countBetween(from, to));
+			long[] sum = new long[1];
+			index.forEachBetween(from, to, id -> sum[0] += id);
+			assertEquals(Arrays.stream(expected).sum(), sum[0]);
+		}
+	}
+
+	@Test
+	@DisplayName("Ids are returned by date and removed from their own day only")
+	public void addAndRemove() {
+		LongDateIndex index = new LongDateIndex();
+		index.add(LocalDate.of(2021, 3, 15), 3L);
+		index.add(LocalDate.of(2021, 2, 1), 1L);
+		index.add(LocalDate.of(2021, 3, 15), 2L);
+
+		assertArrayEquals(new long[] { 3L, 2L }, index.on(LocalDate.of(2021, 3, 15)));
+		assertArrayEquals(new long[] { 1L, 3L, 2L }, index.between(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 4, 1)));
+		assertThrows(IllegalArgumentException.class, () -> index.add(LocalDate.of(2021, 2, 2), 1L));
+
+		assertFalse(index.remove(LocalDate.of(2021, 3, 16), 2L));
+		assertTrue(index.remove(LocalDate.of(2021, 3, 15), 3L));
+		assertFalse(index.remove(LocalDate.of(2021, 3, 15), 3L));
+		assertArrayEquals(new long[] { 2L }, index.on(LocalDate.of(2021, 3, 15)));
+		assertEquals(2, index.size());
+
+		assertEquals(2, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+		index.clear();
+		assertEquals(0, index.countBetween(LocalDate.MIN, LocalDate.MAX));
+		assertFalse(index.remove(LocalDate.of(2021, 2, 1), 1L));
+	}
+
+	private static long[] scan(Map<Long, LocalDate> dates, LocalDate from, LocalDate to) {
+		return dates.entrySet()
+				.stream()
+				.filter(e -> !e.getValue().isBefore(from) && !e.getValue().isAfter(to))
+				.mapToLong(Map.Entry::getKey)
+				.sorted()
+				.toArray();
+	}
+
+	private static long[] sorted(long[] ids) {
+		Arrays.sort(ids);
+		return ids;
+	}
+
+}
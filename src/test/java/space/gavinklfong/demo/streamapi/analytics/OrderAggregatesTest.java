@@ -0,0 +1,162 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.DoubleSummaryStatistics;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+
+public class OrderAggregatesTest {
+
+	private static final YearMonth FEB_2021 = YearMonth.of(2021, 2);
+	private static final YearMonth MAR_2021 = YearMonth.of(2021, 3);
+
+	private OrderAggregates aggregates;
+
+	@BeforeEach
+	public void setUp() {
+		aggregates = new OrderAggregates();
+		load();
+	}
+
+	private void load() {
+		aggregates.rebuild(List.of(
+				Product.builder().id(1L).category("Books").price(100D).build(),
+				Product.builder().id(2L).category("Books").price(250D).build(),
+				Product.builder().id(3L).category("Toys").price(40D).build()));
+		aggregates.orderSaved(10L, LocalDate.of(2021, 2, 10), new long[] { 1, 3 });
+		aggregates.orderSaved(11L, LocalDate.of(2021, 2, 20), new long[] { 2 });
+		aggregates.orderSaved(12L, LocalDate.of(2021, 3, 1), new long[] { 1, 2 });
+		aggregates.loaded();
+	}
+
+	@Test
+	@DisplayName("Totals are computed from the initial load")
+	public void initialTotals() {
+		assertTrue(aggregates.isLoaded());
+		assertEquals(390, aggregates.totalPrice(FEB_2021), 0.001);
+		assertEquals(350, aggregates.totalPrice(MAR_2021), 0.001);
+		assertEquals(140, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+
+		DoubleSummaryStatistics books = aggregates.categoryStatistics("Books");
+		assertEquals(2, books.getCount());
+		assertEquals(350, books.getSum(), 0.001);
+		assertEquals(100, books.getMin(), 0.001);
+		assertEquals(Optional.of(2L), aggregates.mostExpensiveProduct("Books"));
+	}
+
+	@Test
+	@DisplayName("A price change is propagated to the orders containing the product")
+	public void productPriceChanged() {
+		aggregates.productSaved(1L, "Books", 300D);
+
+		assertEquals(340, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+		assertEquals(550, aggregates.orderTotal(12L).getAsDouble(), 0.001);
+		assertEquals(590, aggregates.totalPrice(FEB_2021), 0.001);
+		assertEquals(550, aggregates.totalPrice(MAR_2021), 0.001);
+		assertEquals(Optional.of(1L), aggregates.mostExpensiveProduct("Books"));
+		assertEquals(550, aggregates.categoryStatistics("Books").getSum(), 0.001);
+	}
+
+	@Test
+	@DisplayName("Moving an order to another month and changing its products")
+	public void orderChanged() {
+		aggregates.orderSaved(10L, LocalDate.of(2021, 3, 5), null);
+		assertEquals(250, aggregates.totalPrice(FEB_2021), 0.001);
+		assertEquals(490, aggregates.totalPrice(MAR_2021), 0.001);
+
+		aggregates.orderSaved(10L, LocalDate.of(2021, 3, 5), new long[] { 3 });
+		assertEquals(40, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+		assertEquals(390, aggregates.totalPrice(MAR_2021), 0.001);
+
+		// product 1 is no longer part of order 10
+		aggregates.productSaved(1L, "Books", 110D);
+		assertEquals(40, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+		assertEquals(360, aggregates.orderTotal(12L).getAsDouble(), 0.001);
+	}
+
+	@Test
+	@DisplayName("Date ranges are answered from the date index and follow order changes")
+	public void dateRanges() {
+		assertArrayEquals(new long[] { 10L, 11L }, aggregates.orderIds(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)));
+		assertArrayEquals(new long[] { 12L }, aggregates.orderIds(LocalDate.of(2021, 3, 1)));
+		assertEquals(740, aggregates.totalPrice(LocalDate.of(2021, 2, 10), LocalDate.of(2021, 3, 1)), 0.001);
+
+		aggregates.orderSaved(10L, LocalDate.of(2021, 3, 1), null);
+		aggregates.orderRemoved(12L);
+		assertArrayEquals(new long[] { 11L }, aggregates.orderIds(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)));
+		assertArrayEquals(new long[] { 10L }, aggregates.orderIds(LocalDate.of(2021, 3, 1)));
+		assertEquals(140, aggregates.totalPrice(LocalDate.of(2021, 3, 1), LocalDate.of(2021, 3, 1)), 0.001);
+	}
+
+	@Test
+	@DisplayName("Removing orders and products")
+	public void removed() {
+		aggregates.orderRemoved(11L);
+		assertEquals(140, aggregates.totalPrice(FEB_2021), 0.001);
+		assertTrue(aggregates.orderTotal(11L).isEmpty());
+
+		aggregates.productRemoved(2L);
+		assertEquals(100, aggregates.orderTotal(12L).getAsDouble(), 0.001);
+		assertEquals(Optional.of(1L), aggregates.mostExpensiveProduct("Books"));
+		assertEquals(1, aggregates.categoryStatistics("Books").getCount());
+	}
+
+	@Test
+	@DisplayName("Orders without a date have a total but no month")
+	public void orderWithoutDate() {
+		aggregates.orderSaved(13L, null, new long[] { 3 });
+		assertEquals(40, aggregates.orderTotal(13L).getAsDouble(), 0.001);
+		assertEquals(390, aggregates.totalPrice(FEB_2021), 0.001);
+
+		aggregates.orderSaved(10L, null, null);
+		assertEquals(250, aggregates.totalPrice(FEB_2021), 0.001);
+		aggregates.productSaved(3L, "Toys", 45D);
+		assertEquals(145, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+		assertEquals(250, aggregates.totalPrice(FEB_2021), 0.001);
+
+		aggregates.orderSaved(13L, LocalDate.of(2021, 2, 1), null);
+		aggregates.orderRemoved(10L);
+		assertEquals(295, aggregates.totalPrice(FEB_2021), 0.001);
+		assertArrayEquals(new long[] { 13L, 11L }, aggregates.orderIds(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)));
+	}
+
+	@Test
+	@DisplayName("Repeated price changes do not make the totals drift")
+	public void noDrift() {
+		for (int i = 1; i <= 1000; i++) {
+			aggregates.productSaved(1L, "Books", 100 + i * 0.1);
+			aggregates.productSaved(3L, "Toys", 40 + i * 0.01);
+		}
+		aggregates.productSaved(1L, "Books", 100D);
+		aggregates.productSaved(3L, "Toys", 40D);
+
+		assertEquals(140, aggregates.orderTotal(10L).getAsDouble());
+		assertEquals(390, aggregates.totalPrice(FEB_2021));
+		assertEquals(350, aggregates.categoryStatistics("Books").getSum());
+	}
+
+	@Test
+	@DisplayName("Rebuilding starts over from empty aggregates")
+	public void rebuiltTwice() {
+		for (int i = 0; i < 2; i++) {
+			load();
+			assertEquals(390, aggregates.totalPrice(FEB_2021), 0.001);
+			assertEquals(140, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+			assertArrayEquals(new long[] { 10L, 11L }, aggregates.orderIds(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)));
+			aggregates.productSaved(1L, "Books", 110D);
+			assertEquals(150, aggregates.orderTotal(10L).getAsDouble(), 0.001);
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@DataJpaTest
+public class ParallelQueryExecutorTest {
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	private SimpleMeterRegistry registry;
+
+	private ParallelQueryExecutor executor;
+
+	@BeforeEach
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		executor = new ParallelQueryExecutor(3, registry);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	@Test
+	@DisplayName("Queries run on the analytics pool")
+	public void runsOnDedicatedPool() {
+		Set<String> threads = executor.execute(() -> List.of(1, 2, 3, 4, 5, 6, 7, 8)
+				.parallelStream()
+				.map(i -> Thread.currentThread().getName())
+				.collect(Collectors.toSet()));
+
+		assertEquals(3, executor.getParallelism());
+		assertTrue(threads.stream().allMatch(name -> name.startsWith("analytics-")));
+	}
+
+	@Test
+	@DisplayName("Parallel groupings match the sequential pipelines")
+	public void matchesSequentialPipelines() {
+		List<Order> orders = orderRepo.findAllWithProducts();
+		List<Product> products = productRepo.findAll();
+
+		Map<Long, Set<Long>> orderIdsByCustomer = orders.stream()
+				.collect(Collectors.groupingBy(o -> o.getCustomer().getId(),
+						Collectors.mapping(Order::getId, Collectors.toSet())));
+		assertEquals(orderIdsByCustomer, executor.orderIdsByCustomerId(orders).entrySet()
+				.stream()
+				.collect(Collectors.toMap(Map.Entry::getKey, e -> new HashSet<>(e.getValue()))));
+
+		assertEquals(orderIdsByCustomer.keySet(), executor.ordersByCustomer(orders).keySet()
+				.stream()
+				.map(c -> c.getId())
+				.collect(Collectors.toSet()));
+
+		Map<Long, Double> totals = orders.stream()
+				.collect(Collectors.toMap(Order::getId,
+						o -> o.getProducts().stream().mapToDouble(Product::getPrice).sum()));
+		Map<Long, Double> parallelTotals = executor.orderTotals(orders);
+		totals.forEach((id, total) -> assertEquals(total, parallelTotals.get(id), 0.001));
+
+		Map<String, Optional<Product>> mostExpensive = products.stream()
+				.collect(Collectors.groupingBy(Product::getCategory,
+						Collectors.maxBy(Comparator.comparing(Product::getPrice))));
+		assertEquals(mostExpensive, executor.mostExpensiveProductByCategory(products));
+
+		double febTotal = orders.stream()
+				.filter(o -> o.getOrderDate().getMonthValue() == 2)
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+		assertEquals(febTotal, executor.totalPriceBetween(orders,
+				LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28)), 0.001);
+	}
+
+	@Test
+	@DisplayName("Orders without a customer are left out of the groupings by customer")
+	public void ordersWithoutCustomer() {
+		List<Order> orders = new ArrayList<>(orderRepo.findAllWithProducts());
+		orders.add(Order.builder().orderDate(LocalDate.of(2021, 3, 1)).build());
+
+		assertEquals(orders.size() - 1, executor.orderIdsByCustomerId(orders).values()
+				.stream()
+				.mapToInt(List::size)
+				.sum());
+		assertEquals(executor.orderIdsByCustomerId(orders).size(), executor.ordersByCustomer(orders).size());
+	}
+
+	@Test
+	@DisplayName("Named queries record their latency, rows scanned and rows returned")
+	public void queriesAreMeasured() {
+		List<Order> orders = orderRepo.findAllWithProducts();
+
+		Map<Long, Double> totals = executor.orderTotals(orders);
+		executor.orderTotals(orders);
+
+		assertEquals(2, registry.get(ParallelQueryExecutor.QUERIES).tag("query", "orderTotals").timer().count());
+		assertEquals(2, registry.get(ParallelQueryExecutor.QUERIES).tag("exception", "none").timer().count());
+		assertEquals(2D * orders.size(),
+				registry.get(ParallelQueryExecutor.ROWS_SCANNED).tag("query", "orderTotals").summary().totalAmount());
+		assertEquals(2D * totals.size(),
+				registry.get(ParallelQueryExecutor.ROWS_RETURNED).tag("query", "orderTotals").summary().totalAmount());
+
+		List<Order> undated = new ArrayList<>(orders);
+		undated.add(Order.builder().build());
+		assertThrows(NullPointerException.class, () -> executor.totalPriceBetween(undated, LocalDate.MIN, LocalDate.MAX));
+		assertEquals(1, registry.get(ParallelQueryExecutor.QUERIES)
+				.tags("query", "totalPriceBetween", "exception", "NullPointerException")
+				.timer()
+				.count());
+	}
+
+}
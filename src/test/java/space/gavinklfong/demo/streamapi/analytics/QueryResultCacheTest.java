@@ -0,0 +1,166 @@
+package space.gavinklfong.demo.streamapi.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+public class QueryResultCacheTest {
+
+	private static final Set<Class<?>> PRODUCTS = Set.of(Product.class);
+	private static final Set<Class<?>> ORDERS = Set.of(Order.class, Product.class);
+
+	private QueryResultCache cache;
+
+	private AtomicInteger computed;
+
+	@BeforeEach
+	public void setUp() {
+		cache = new QueryResultCache(100, new SimpleMeterRegistry());
+		computed = new AtomicInteger();
+	}
+
+	@Test
+	@DisplayName("Results are keyed by query name and parameters")
+	public void keyedByQueryAndParameters() {
+		String books = cache.get("pricedAbove", PRODUCTS, () -> compute("books"), "Books", 100D);
+
+		assertSame(books, cache.get("pricedAbove", PRODUCTS, () -> compute("again"), "Books", 100D));
+		assertEquals("toys", cache.get("pricedAbove", PRODUCTS, () -> compute("toys"), "Toys", 100D));
+		assertEquals("cheaper", cache.get("pricedAbove", PRODUCTS, () -> compute("cheaper"), "Books", 50D));
+		assertEquals("other", cache.get("other", PRODUCTS, () -> compute("other"), "Books", 100D));
+		assertEquals(4, computed.get());
+	}
+
+	@Test
+	@DisplayName("Writes drop the results computed from the written entities only")
+	public void invalidatedByEntityWrites() {
+		cache.get("products", PRODUCTS, () -> compute("products"));
+		cache.get("orders", ORDERS, () -> compute("orders"));
+
+		cache.entityWritten(Customer.class);
+		assertEquals(2, cache.size());
+
+		cache.entityWritten(Order.class);
+		assertEquals(1, cache.size());
+		cache.get("products", PRODUCTS, () -> compute("products"));
+		cache.get("orders", ORDERS, () -> compute("orders"));
+		assertEquals(3, computed.get());
+
+		cache.entityWritten(Product.class);
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	@DisplayName("A result computed while its entities were written is not kept")
+	public void writeDuringComputation() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch written = new CountDownLatch(1);
+		CompletableFuture<String> stale = CompletableFuture.supplyAsync(() -> cache.get("products", PRODUCTS, () -> {
+			started.countDown();
+			await(written);
+			return compute("stale");
+		}));
+
+		started.await(10, TimeUnit.SECONDS);
+		cache.entityWritten(Product.class);
+		written.countDown();
+
+		assertEquals("stale", stale.get(10, TimeUnit.SECONDS));
+		assertEquals("fresh", cache.get("products", PRODUCTS, () -> compute("fresh")));
+		assertEquals("fresh", cache.get("products", PRODUCTS, () -> compute("again")));
+	}
+
+	@Test
+	@DisplayName("Concurrent identical requests compute the result once")
+	public void stampedeProtection() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		List<CompletableFuture<String>> results = IntStream.range(0, 8)
+				.mapToObj(i -> CompletableFuture.supplyAsync(() -> cache.get("slow", PRODUCTS, () -> {
+					await(release);
+					return compute("slow");
+				}, "Books")))
+				.collect(Collectors.toList());
+
+		Thread.sleep(100);
+		release.countDown();
+
+		for (CompletableFuture<String> result : results) {
+			assertEquals("slow", result.get(10, TimeUnit.SECONDS));
+		}
+		assertEquals(1, computed.get());
+	}
+
+	@Test
+	@DisplayName("A running computation does not block other keys")
+	public void otherKeysNotBlocked() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> cache.get("slow", PRODUCTS, () -> {
+			await(release);
+			return compute("slow");
+		}));
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals("fast", cache.get("fast", PRODUCTS, () -> compute("fast"), i));
+		}
+		assertFalse(slow.isDone());
+
+		release.countDown();
+		assertEquals("slow", slow.get(10, TimeUnit.SECONDS));
+	}
+
+	@Test
+	@DisplayName("Failed computations are not cached")
+	public void failuresNotCached() {
+		assertThrows(IllegalStateException.class, () -> cache.get("failing", PRODUCTS, () -> {
+			throw new IllegalStateException("failed");
+		}));
+
+		assertEquals("recovered", cache.get("failing", PRODUCTS, () -> compute("recovered")));
+	}
+
+	@Test
+	@DisplayName("The cache is bounded")
+	public void bounded() {
+		for (int i = 0; i < 1000; i++) {
+			int n = i;
+			cache.get("query", PRODUCTS, () -> compute("result " + n), n);
+		}
+
+		assertTrue(cache.size() <= 100);
+	}
+
+	private String compute(String result) {
+		computed.incrementAndGet();
+		return result;
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,93 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LongHashMapsTest {
+
+	@Test
+	@DisplayName("Removed keys leave the other keys reachable")
+	public void longLongRemove() {
+		LongLongHashMap map = new LongLongHashMap();
+		Map<Long, Long> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long key = random.nextInt(500);
+			if (random.nextBoolean()) {
+				map.put(key, i);
+				expected.put(key, (long) i);
+			} else {
+				assertEquals(expected.containsKey(key) ? expected.remove(key) : -1L, map.remove(key, -1));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		expected.forEach((key, value) -> assertEquals(value, map.get(key, -1)));
+	}
+
+	@Test
+	@DisplayName("Values and keys are removed from a list map")
+	public void longListRemove() {
+		LongListHashMap map = new LongListHashMap();
+		Map<Long, List<Long>> expected = new HashMap<>();
+		Random random = new Random(42);
+		for (int i = 0; i < 10_000; i++) {
+			long key = random.nextInt(200);
+			long value = random.nextInt(5);
+			if (random.nextBoolean()) {
+				map.add(key, value);
+				expected.computeIfAbsent(key, k -> new ArrayList<>()).add(value);
+			} else {
+				List<Long> values = expected.get(key);
+				boolean removed = values != null && values.remove(value);
+				if (values != null && values.isEmpty()) {
+					expected.remove(key);
+				}
+				assertEquals(removed, map.removeValue(key, value));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		expected.forEach((key, values) -> assertArrayEquals(
+				values.stream().mapToLong(Long::longValue).toArray(), map.get(key)));
+
+		long key = expected.keySet().iterator().next();
+		assertEquals(expected.get(key).size(), map.remove(key).length);
+		assertFalse(map.containsKey(key));
+		assertTrue(map.remove(key).length == 0);
+	}
+
+	@Test
+	@DisplayName("Keys added again after a remove or a clear start from zero")
+	public void reusedSlotsStartEmpty() {
+		LongLongHashMap longs = new LongLongHashMap();
+		longs.put(1, 100);
+		longs.remove(1, 0);
+		longs.add(1, 1);
+		assertEquals(1, longs.get(1, 0));
+		longs.clear();
+		longs.add(1, 2);
+		assertEquals(2, longs.get(1, 0));
+
+		LongListHashMap lists = new LongListHashMap();
+		for (int i = 0; i < 10; i++) {
+			lists.add(1, i);
+		}
+		lists.clear();
+		lists.add(1, 9);
+		assertArrayEquals(new long[] { 9 }, lists.get(1));
+		lists.remove(1);
+		lists.add(1, 8);
+		assertArrayEquals(new long[] { 8 }, lists.get(1));
+	}
+
+}
@@ -0,0 +1,83 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import space.gavinklfong.demo.streamapi.models.Money;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+public class MoneyCollectorsTest {
+
+	private final List<Product> products = IntStream.range(0, 100000)
+			.mapToObj(i -> Product.builder().price((1000 + i % 99000) / 100.0).build())
+			.collect(Collectors.toList());
+
+	@Test
+	@DisplayName("Sums in cents are exact where the double sum drifts")
+	public void summing() {
+		BigDecimal expected = products.stream()
+				.map(p -> BigDecimal.valueOf(p.getPrice()))
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+		List<Product> dimes = Collections.nCopies(10, Product.builder().price(0.1).build());
+
+		assertNotEquals(1.0, dimes.stream().reduce(0D, (acc, p) -> acc + p.getPrice(), Double::sum));
+		assertEquals(Money.ofCents(100), dimes.stream().collect(MoneyCollectors.summing(Product::getPriceInCents)));
+		assertEquals(expected, products.stream()
+				.collect(MoneyCollectors.summing(Product::getPriceInCents)).toBigDecimal());
+		assertEquals(expected, products.parallelStream()
+				.collect(MoneyCollectors.summing(Product::getPriceInCents)).toBigDecimal());
+	}
+
+	@Test
+	@DisplayName("Averages and discounts round half-even to the cent")
+	public void averagingAndDiscount() {
+		assertEquals(Optional.of(Money.ofCents(2)), Stream.of(1L, 2L, 2L, 2L)
+				.collect(MoneyCollectors.averaging(Long::longValue)));
+		assertEquals(Optional.of(Money.ofCents(2)), Stream.of(2L, 3L)
+				.collect(MoneyCollectors.averaging(Long::longValue)));
+		assertEquals(Optional.empty(), Stream.<Long>empty().collect(MoneyCollectors.averaging(Long::longValue)));
+
+		// 90% of 12.66 is 11.394, 90% of 0.25 is 0.225
+		assertEquals("11.39", Money.of(12.66).percentOff(10).toString());
+		assertEquals("0.22", Money.of(0.25).percentOff(10).toString());
+		assertEquals(Money.of(0.25).percentOff(10), Money.of(0.25).times(new BigDecimal("0.90")));
+		assertEquals("0.24", Money.of(0.35).times(new BigDecimal("0.7")).toString());
+		assertEquals(Money.of(new BigDecimal("11.61")), Stream.of(12.66, 0.25)
+				.collect(MoneyCollectors.summingDiscounted(Money::toCents, 10)));
+		assertThrows(IllegalArgumentException.class, () -> MoneyCollectors.summingDiscounted(Money::toCents, 101));
+	}
+
+	@Test
+	@DisplayName("Money arithmetic is exact and overflow is an error")
+	public void arithmetic() {
+		assertEquals(Money.of(new BigDecimal("0.30")), Money.of(0.1).plus(Money.of(0.2)));
+		assertEquals("-1.05", Money.ofCents(20).minus(Money.of(1.25)).toString());
+		assertEquals(Money.ofCents(1500), Money.of(5).times(3));
+		assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1.005")));
+		assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+		assertEquals(-2, Money.divideHalfEven(-5, 2));
+		assertEquals(-4, Money.divideHalfEven(-7, 2));
+	}
+
+	@Test
+	@DisplayName("A product without price has no amount in cents")
+	public void missingPrice() {
+		Product product = Product.builder().id(1L).build();
+
+		assertThrows(IllegalStateException.class, product::getPriceInCents);
+		assertThrows(IllegalStateException.class, product::getPriceAsMoney);
+	}
+
+}
@@ -0,0 +1,112 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class PrimitiveCollectorsTest {
+
+	// { key, value } pairs over enough keys to force several resizes
+	private final List<long[]> pairs = new Random(42)
+			.ints(100000, 0, 5000)
+			.mapToObj(key -> new long[] { key * 31L - 1000, key + 7L })
+			.collect(Collectors.toList());
+
+	@Test
+	@DisplayName("Compensated sum does not drift")
+	public void summingDouble() {
+		double naive = DoubleStream.generate(() -> 0.1).limit(10).reduce(0, Double::sum);
+
+		assertEquals(0.9999999999999999, naive);
+		assertEquals(1.0, DoubleStream.generate(() -> 0.1).limit(10).boxed()
+				.collect(PrimitiveCollectors.summingDouble(Double::doubleValue)));
+		assertEquals(1.0, DoubleStream.generate(() -> 0.1).limit(10).boxed().parallel()
+				.collect(PrimitiveCollectors.summingDouble(Double::doubleValue)));
+		assertEquals(Double.POSITIVE_INFINITY, DoubleStream.of(1, Double.POSITIVE_INFINITY).boxed()
+				.collect(PrimitiveCollectors.summingDouble(Double::doubleValue)));
+	}
+
+	@Test
+	@DisplayName("Grouping by sum matches Collectors.groupingBy")
+	public void groupingBySum() {
+		Map<Long, Double> expected = pairs.stream()
+				.collect(Collectors.groupingBy(p -> p[0], Collectors.summingDouble(p -> p[1] / 4.0)));
+
+		for (boolean parallel : new boolean[] { false, true }) {
+			LongDoubleHashMap result = (parallel ? pairs.parallelStream() : pairs.stream())
+					.collect(PrimitiveCollectors.groupingBySum(p -> p[0], p -> p[1] / 4.0));
+
+			assertEquals(expected.size(), result.size());
+			expected.forEach((key, value) -> assertEquals(value, result.get(key, Double.NaN), 1e-9));
+		}
+		assertFalse(new LongDoubleHashMap().containsKey(0));
+	}
+
+	@Test
+	@DisplayName("Grouping by sum compensates the rounding errors")
+	public void groupingBySumIsCompensated() {
+		List<double[]> values = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			values.add(new double[] { 1, 0.1 });
+		}
+		values.add(new double[] { 2, 1 });
+		values.add(new double[] { 2, 1e100 });
+		values.add(new double[] { 2, 1 });
+		values.add(new double[] { 2, -1e100 });
+		values.add(new double[] { 3, Double.POSITIVE_INFINITY });
+		values.add(new double[] { 3, 1 });
+
+		// summed naively, key 1 gives 0.9999999999999999 and key 2 gives 0
+		for (boolean parallel : new boolean[] { false, true }) {
+			LongDoubleHashMap result = (parallel ? values.parallelStream() : values.stream())
+					.collect(PrimitiveCollectors.groupingBySum(v -> (long) v[0], v -> v[1]));
+
+			assertEquals(1.0, result.get(1, Double.NaN));
+			assertEquals(2.0, result.get(2, Double.NaN));
+			assertEquals(Double.POSITIVE_INFINITY, result.get(3, Double.NaN));
+		}
+	}
+
+	@Test
+	@DisplayName("Grouping by long keeps the encounter order of the values")
+	public void groupingByLong() {
+		Map<Long, List<Long>> expected = pairs.stream()
+				.collect(Collectors.groupingBy(p -> p[0], Collectors.mapping(p -> p[1], Collectors.toList())));
+
+		for (boolean parallel : new boolean[] { false, true }) {
+			LongListHashMap result = (parallel ? pairs.parallelStream() : pairs.stream())
+					.collect(PrimitiveCollectors.groupingByLong(p -> p[0], p -> p[1]));
+
+			assertEquals(expected.size(), result.size());
+			expected.forEach((key, values) -> assertArrayEquals(
+					values.stream().mapToLong(Long::longValue).toArray(), result.get(key)));
+		}
+		assertEquals(0, new LongListHashMap().get(42).length);
+	}
+
+	@Test
+	@DisplayName("Put overwrites and add accumulates")
+	public void putAndAdd() {
+		LongDoubleHashMap map = new LongDoubleHashMap(0);
+		IntStream.range(0, 1000).forEach(i -> map.put(i, i));
+		map.add(10, 0.5);
+		map.put(20, -1);
+
+		assertEquals(1000, map.size());
+		assertEquals(10.5, map.get(10, 0));
+		assertEquals(-1, map.get(20, 0));
+		assertEquals(1000, map.keys().length);
+	}
+
+}
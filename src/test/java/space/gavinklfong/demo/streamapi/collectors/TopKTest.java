@@ -0,0 +1,65 @@
+package space.gavinklfong.demo.streamapi.collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class TopKTest {
+
+	// few distinct keys so that most elements tie
+	private static final Comparator<int[]> BY_KEY = Comparator.comparingInt(e -> e[0]);
+
+	private final List<int[]> elements = new Random(42)
+			.ints(10000, 0, 50)
+			.mapToObj(key -> new int[] { key })
+			.collect(Collectors.toList());
+
+	@Test
+	@DisplayName("least(k) returns the same list as sorted().limit(k)")
+	public void leastMatchesSortThenLimit() {
+		for (int k : new int[] { 0, 1, 3, 100, 20000 }) {
+			List<int[]> expected = elements.stream().sorted(BY_KEY).limit(k).collect(Collectors.toList());
+
+			assertSameElements(expected, elements.stream().collect(TopK.least(k, BY_KEY)));
+			assertSameElements(expected, elements.parallelStream().collect(TopK.least(k, BY_KEY)));
+		}
+	}
+
+	@Test
+	@DisplayName("greatest(k) returns the same list as sorted(reversed()).limit(k)")
+	public void greatestMatchesSortThenLimit() {
+		for (int k : new int[] { 0, 1, 3, 100, 20000 }) {
+			List<int[]> expected = elements.stream().sorted(BY_KEY.reversed()).limit(k).collect(Collectors.toList());
+
+			assertSameElements(expected, elements.stream().collect(TopK.greatest(k, BY_KEY)));
+			assertSameElements(expected, elements.parallelStream().collect(TopK.greatest(k, BY_KEY)));
+		}
+	}
+
+	@Test
+	@DisplayName("Empty streams and invalid k")
+	public void edgeCases() {
+		assertTrue(IntStream.empty().boxed().collect(TopK.least(3, Comparator.<Integer>naturalOrder())).isEmpty());
+		assertEquals(List.of(1, 2), IntStream.of(2, 1).boxed().collect(TopK.least(3, Comparator.<Integer>naturalOrder())));
+		assertThrows(IllegalArgumentException.class, () -> TopK.least(-1, Comparator.<Integer>naturalOrder()));
+	}
+
+	// compares identity to check that ties keep the encounter order
+	private static void assertSameElements(List<int[]> expected, List<int[]> result) {
+		assertEquals(expected.size(), result.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertSame(expected.get(i), result.get(i));
+		}
+	}
+
+}
@@ -0,0 +1,97 @@
+package space.gavinklfong.demo.streamapi.datagen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class DataGeneratorTest {
+
+	@Test
+	@DisplayName("The same seed generates the same rows")
+	public void sameSeedSameRows() {
+		DataGenerator generator = DataGenerator.builder().seed(7).orders(1000).build();
+
+		RecordingSink first = new RecordingSink();
+		RecordingSink second = new RecordingSink();
+		generator.generate(first);
+		generator.generate(second);
+
+		assertEquals(first.rows, second.rows);
+	}
+
+	@Test
+	@DisplayName("Generated rows keep the shape of data.sql")
+	public void rowsFollowDataModel() {
+		DataGenerator generator = DataGenerator.builder().orders(5000).idOffset(100).build();
+		RecordingSink sink = new RecordingSink();
+		generator.generate(sink);
+
+		assertEquals(1000, sink.customers.size());
+		assertEquals(3000, sink.products.size());
+		assertEquals(5000, sink.orders);
+		assertTrue(sink.customers.stream().allMatch(id -> id > 100));
+		assertTrue(sink.maxProductsPerOrder <= 6);
+		assertTrue(sink.links.size() > 5000 * 3);
+		assertTrue(sink.minOrderDate.getYear() == 2021 && sink.maxOrderDate.getYear() == 2021);
+		assertTrue(sink.unknownReferences == 0);
+	}
+
+	private static class RecordingSink implements RowSink {
+
+		private final List<String> rows = new ArrayList<>();
+		private final Set<Long> customers = new HashSet<>();
+		private final Set<Long> products = new HashSet<>();
+		private final Set<String> links = new HashSet<>();
+		private long orders;
+		private long currentOrder;
+		private int currentOrderProducts;
+		private int maxProductsPerOrder;
+		private int unknownReferences;
+		private LocalDate minOrderDate = LocalDate.MAX;
+		private LocalDate maxOrderDate = LocalDate.MIN;
+
+		@Override
+		public void customer(long id, String name, int tier) {
+			rows.add(id + name + tier);
+			customers.add(id);
+		}
+
+		@Override
+		public void product(long id, String name, String category, double price) {
+			rows.add(id + name + category + price);
+			products.add(id);
+		}
+
+		@Override
+		public void order(long id, LocalDate orderDate, LocalDate deliveryDate, String status, long customerId) {
+			rows.add(id + "" + orderDate + deliveryDate + status + customerId);
+			orders++;
+			currentOrder = id;
+			currentOrderProducts = 0;
+			if (!customers.contains(customerId)) {
+				unknownReferences++;
+			}
+			minOrderDate = orderDate.isBefore(minOrderDate) ? orderDate : minOrderDate;
+			maxOrderDate = orderDate.isAfter(maxOrderDate) ? orderDate : maxOrderDate;
+		}
+
+		@Override
+		public void orderProduct(long orderId, long productId) {
+			rows.add(orderId + "-" + productId);
+			if (orderId != currentOrder || !products.contains(productId) || !links.add(orderId + "-" + productId)) {
+				unknownReferences++;
+			}
+			maxProductsPerOrder = Math.max(maxProductsPerOrder, ++currentOrderProducts);
+		}
+
+	}
+
+}
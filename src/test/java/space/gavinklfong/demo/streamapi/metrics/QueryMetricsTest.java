@@ -0,0 +1,112 @@
+package space.gavinklfong.demo.streamapi.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class QueryMetricsTest {
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private MeterRegistry registry;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Test
+	@DisplayName("Repository calls record latency, rows fetched, entities hydrated and rows returned")
+	public void repositoryCallsAreMeasured() {
+		long calls = timer("OrderRepo", "findByOrderDate").count();
+		double fetched = summary(RepositoryMetrics.ROWS_FETCHED, "OrderRepo", "findByOrderDate").totalAmount();
+		double hydrated = summary(RepositoryMetrics.ENTITIES_HYDRATED, "OrderRepo", "findByOrderDate").totalAmount();
+		double returned = summary(RepositoryMetrics.ROWS_RETURNED, "OrderRepo", "findByOrderDate").totalAmount();
+
+		List<Order> orders = orderRepo.findByOrderDate(LocalDate.of(2021, 3, 15));
+
+		assertTrue(orders.size() > 0);
+		assertEquals(calls + 1, timer("OrderRepo", "findByOrderDate").count());
+		assertEquals(returned + orders.size(),
+				summary(RepositoryMetrics.ROWS_RETURNED, "OrderRepo", "findByOrderDate").totalAmount());
+		// one row and one entity per order, the customers are lazy and not loaded
+		assertEquals(fetched + orders.size(),
+				summary(RepositoryMetrics.ROWS_FETCHED, "OrderRepo", "findByOrderDate").totalAmount());
+		assertEquals(hydrated + orders.size(),
+				summary(RepositoryMetrics.ENTITIES_HYDRATED, "OrderRepo", "findByOrderDate").totalAmount());
+	}
+
+	@Test
+	@DisplayName("Failed calls are recorded with their exception")
+	public void failuresAreTagged() {
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> customerRepo.findById(null));
+
+		Timer failed = registry.get(RepositoryMetrics.INVOCATIONS)
+				.tags("repository", "CustomerRepo", "method", "findById", "outcome", "error")
+				.tag("exception", "IllegalArgumentException")
+				.timer();
+		assertTrue(failed.count() >= 1);
+	}
+
+	@Test
+	@DisplayName("Rows read through the statement of a result set are counted too")
+	public void resultSetStatementIsCounted() throws SQLException {
+		try (Connection connection = dataSource.getConnection();
+				Statement statement = connection.createStatement()) {
+			ResultSet first = statement.executeQuery("select id from customer");
+			assertSame(statement, first.getStatement());
+
+			long fetched = QueryCounters.rowsFetched();
+			int rows = 0;
+			try (ResultSet second = first.getStatement().executeQuery("select id from product")) {
+				while (second.next()) {
+					rows++;
+				}
+			}
+
+			assertTrue(rows > 0);
+			assertEquals(fetched + rows, QueryCounters.rowsFetched());
+		}
+	}
+
+	private Timer timer(String repository, String method) {
+		return Timer.builder(RepositoryMetrics.INVOCATIONS)
+				.tags("repository", repository, "method", method, "outcome", "success", "exception", "none")
+				.register(registry);
+	}
+
+	private DistributionSummary summary(String name, String repository, String method) {
+		return DistributionSummary.builder(name)
+				.tags("repository", repository, "method", method)
+				.register(registry);
+	}
+
+}
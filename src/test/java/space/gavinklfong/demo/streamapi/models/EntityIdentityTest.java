@@ -0,0 +1,107 @@
+package space.gavinklfong.demo.streamapi.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import space.gavinklfong.demo.streamapi.repos.CustomerRepo;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+@DataJpaTest
+public class EntityIdentityTest {
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	@DisplayName("New entities used as keys stay reachable after they are saved")
+	public void keysStableAcrossPersist() {
+		Order order = Order.builder()
+				.orderDate(LocalDate.of(2021, 5, 1))
+				.customer(customerRepo.findById(1L).get())
+				.build();
+		Set<Order> set = new HashSet<>(Set.of(order));
+		Map<Order, Double> totals = new HashMap<>(Map.of(order, 10D));
+		int hash = order.hashCode();
+
+		orderRepo.save(order);
+		entityManager.flush();
+
+		assertTrue(order.getId() != null);
+		assertEquals(hash, order.hashCode());
+		assertTrue(set.contains(order));
+		assertEquals(10D, totals.get(order));
+		assertEquals(order, orderRepo.findById(order.getId()).get());
+	}
+
+	@Test
+	@DisplayName("Entities are equal by class and id, lazy proxies are not initialized")
+	public void equalById() {
+		Order order = orderRepo.findById(1L).get();
+		Customer proxy = order.getCustomer();
+		entityManager.detach(proxy);
+		entityManager.clear();
+		Customer customer = customerRepo.findById(proxy.getId()).get();
+
+		assertFalse(Hibernate.isInitialized(proxy));
+		assertEquals(customer, proxy);
+		assertEquals(proxy, customer);
+		assertEquals(customer.hashCode(), proxy.hashCode());
+		assertFalse(Hibernate.isInitialized(proxy));
+
+		assertNotEquals(customerRepo.findById(1L).get(), productRepo.findById(1L).get());
+		assertNotEquals(Customer.builder().build(), Customer.builder().build());
+		assertNotEquals(Customer.builder().id(1L).build(), Customer.builder().id(2L).build());
+	}
+
+	@Test
+	@DisplayName("Orders group by customer with the id-based keys")
+	public void groupingByCustomer() {
+		Map<Customer, List<Order>> byCustomer = orderRepo.findAll()
+				.stream()
+				.collect(Collectors.groupingBy(Order::getCustomer));
+		Map<Long, List<Order>> byCustomerId = orderRepo.findAll()
+				.stream()
+				.collect(Collectors.groupingBy(o -> o.getCustomer().getId()));
+
+		assertEquals(byCustomerId.size(), byCustomer.size());
+		byCustomer.forEach((customer, orders) -> assertEquals(byCustomerId.get(customer.getId()), orders));
+	}
+
+	@Test
+	@DisplayName("Ids cannot be changed once hashed")
+	public void noIdSetter() {
+		for (Class<?> entity : List.of(Customer.class, Product.class, Order.class)) {
+			assertThrows(NoSuchMethodException.class, () -> entity.getMethod("setId", Long.class));
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+package space.gavinklfong.demo.streamapi.reactive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+// a database of its own, the JDBC and R2DBC urls must name the same one
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+		"reactive.enabled=true",
+		"spring.datasource.url=jdbc:h2:mem:reactivedb;DB_CLOSE_DELAY=-1",
+		"reactive.url=r2dbc:h2:mem:///reactivedb;DB_CLOSE_DELAY=-1"
+})
+@Transactional
+public class ReactiveRepoTest {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private ReactiveOrderRepo reactiveOrderRepo;
+
+	@Autowired
+	private ReactiveProductRepo reactiveProductRepo;
+
+	@Autowired
+	private ReactiveAnalytics analytics;
+
+	@Test
+	@DisplayName("Reactive product finders return the products of the JPA finders")
+	public void products() {
+		assertEquals(productRepo.findAll().size(), reactiveProductRepo.findAll().count().block(TIMEOUT).intValue());
+		assertProducts(productRepo.findByCategory("Books"),
+				reactiveProductRepo.findByCategory("Books").collectList().block(TIMEOUT));
+		assertProducts(productRepo.findByCategoryAndPriceGreaterThan("Books", 100D),
+				reactiveProductRepo.findByCategoryAndPriceGreaterThan("Books", 100D).collectList().block(TIMEOUT));
+		assertEquals(productRepo.findById(1L).get().getName(), reactiveProductRepo.findById(1L).block(TIMEOUT).getName());
+	}
+
+	@Test
+	@DisplayName("Reactive orders come with the customer and products of the JPA orders")
+	public void orders() {
+		LocalDate from = LocalDate.of(2021, 2, 1);
+		LocalDate to = LocalDate.of(2021, 4, 1);
+
+		assertOrders(orderRepo.findAll(), reactiveOrderRepo.findAll().collectList().block(TIMEOUT));
+		assertOrders(orderRepo.findByOrderDateBetween(from, to),
+				reactiveOrderRepo.findByOrderDateBetween(from, to).collectList().block(TIMEOUT));
+		assertOrders(orderRepo.findByCustomerTierAndOrderDateBetween(2, from, to),
+				reactiveOrderRepo.findByCustomerTierAndOrderDateBetween(2, from, to).collectList().block(TIMEOUT));
+	}
+
+	@Test
+	@DisplayName("Orders are emitted as they are requested, each one complete")
+	public void backpressure() {
+		List<Order> orders = orderRepo.findAll();
+		orders.sort(Comparator.comparing(Order::getId));
+		Map<Long, Set<Long>> productIds = orders.stream()
+				.collect(Collectors.toMap(Order::getId, o -> ids(o.getProducts())));
+
+		StepVerifier.create(reactiveOrderRepo.findAll(), 1)
+				.assertNext(o -> assertEquals(productIds.get(o.getId()), ids(o.getProducts())))
+				.expectNoEvent(Duration.ofMillis(100))
+				.thenRequest(2)
+				.assertNext(o -> assertEquals(orders.get(1).getId(), o.getId()))
+				.assertNext(o -> assertEquals(productIds.get(o.getId()), ids(o.getProducts())))
+				.thenCancel()
+				.verify(TIMEOUT);
+	}
+
+	@Test
+	@DisplayName("Exercise aggregations with Reactor operators match the streams")
+	public void aggregations() {
+		List<Order> orders = orderRepo.findAll();
+		LocalDate from = LocalDate.of(2021, 2, 1);
+		LocalDate to = LocalDate.of(2021, 2, 28);
+		double total = orders.stream()
+				.filter(o -> !o.getOrderDate().isBefore(from) && !o.getOrderDate().isAfter(to))
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+		assertEquals(total, analytics.totalPriceBetween(from, to).block(TIMEOUT), 0.001);
+
+		LocalDate day = LocalDate.of(2021, 3, 15);
+		Set<Long> productsOnDay = orders.stream()
+				.filter(o -> o.getOrderDate().isEqual(day))
+				.flatMap(o -> o.getProducts().stream())
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+		assertEquals(productsOnDay, ids(analytics.productsOrderedOn(day).collectList().block(TIMEOUT)));
+
+		DoubleSummaryStatistics books = productRepo.findByCategory("Books")
+				.stream()
+				.mapToDouble(Product::getPrice)
+				.summaryStatistics();
+		DoubleSummaryStatistics reactiveBooks = analytics.priceStatistics("Books").block(TIMEOUT);
+		assertEquals(books.getCount(), reactiveBooks.getCount());
+		assertEquals(books.getMax(), reactiveBooks.getMax());
+
+		Map<String, Double> maxPrice = productRepo.findAll()
+				.stream()
+				.collect(Collectors.toMap(Product::getCategory, Product::getPrice, Math::max));
+		Map<String, Product> mostExpensive = analytics.mostExpensiveByCategory().block(TIMEOUT);
+		assertEquals(maxPrice.keySet(), mostExpensive.keySet());
+		maxPrice.forEach((category, price) -> assertEquals(price, mostExpensive.get(category).getPrice()));
+
+		Map<Long, Double> totals = analytics.orderTotals().block(TIMEOUT);
+		orders.forEach(o -> assertEquals(o.getProducts().stream().mapToDouble(Product::getPrice).sum(),
+				totals.get(o.getId()), 0.001));
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@DisplayName("Equally priced products are ranked by id, results do not change on resubscription")
+	public void tiesAndResubscription() {
+		Product mostExpensive = productRepo.findByCategory("Books")
+				.stream()
+				.max(Comparator.comparingDouble(Product::getPrice).thenComparing(Product::getId, Comparator.reverseOrder()))
+				.get();
+		Product cheapest = productRepo.findByCategory("Books")
+				.stream()
+				.min(Comparator.comparingDouble(Product::getPrice).thenComparingLong(Product::getId))
+				.get();
+		List<Product> ties = List.of(
+				productRepo.save(Product.builder().name("tied expensive book").category("Books")
+						.price(mostExpensive.getPrice()).build()),
+				productRepo.save(Product.builder().name("tied cheap book").category("Books")
+						.price(cheapest.getPrice()).build()));
+		try {
+			assertEquals(mostExpensive.getId(), analytics.mostExpensiveByCategory().block(TIMEOUT).get("Books").getId());
+
+			List<Product> books = productRepo.findByCategory("Books");
+			books.sort(Comparator.comparingDouble(Product::getPrice).thenComparingLong(Product::getId));
+			assertEquals(books.subList(0, 3).stream().map(Product::getId).collect(Collectors.toList()),
+					analytics.cheapest("Books", 3).map(Product::getId).collectList().block(TIMEOUT));
+
+			Mono<Double> total = analytics.totalPriceBetween(LocalDate.of(2021, 2, 1), LocalDate.of(2021, 2, 28));
+			assertEquals(total.block(TIMEOUT), total.block(TIMEOUT));
+		} finally {
+			productRepo.deleteAll(ties);
+		}
+	}
+
+	private static void assertProducts(List<Product> expected, List<Product> actual) {
+		assertFalse(expected.isEmpty());
+		Map<Long, Double> prices = actual.stream().collect(Collectors.toMap(Product::getId, Product::getPrice));
+		assertEquals(ids(expected), prices.keySet());
+		expected.forEach(p -> assertEquals(p.getPrice(), prices.get(p.getId())));
+	}
+
+	private static void assertOrders(List<Order> expected, List<Order> actual) {
+		assertFalse(expected.isEmpty());
+		Map<Long, Order> byId = actual.stream().collect(Collectors.toMap(Order::getId, Function.identity()));
+		assertEquals(expected.size(), actual.size());
+		for (Order order : expected) {
+			Order reactive = byId.get(order.getId());
+			assertEquals(order.getOrderDate(), reactive.getOrderDate());
+			assertEquals(order.getCustomer().getId(), reactive.getCustomer().getId());
+			assertEquals(order.getCustomer().getTier(), reactive.getCustomer().getTier());
+			assertEquals(ids(order.getProducts()), ids(reactive.getProducts()));
+		}
+	}
+
+	private static Set<Long> ids(Iterable<Product> products) {
+		Set<Long> ids = new HashSet<>();
+		products.forEach(p -> ids.add(p.getId()));
+		return ids;
+	}
+
+}
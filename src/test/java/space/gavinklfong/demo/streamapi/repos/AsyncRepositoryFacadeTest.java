@@ -0,0 +1,136 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static space.gavinklfong.demo.streamapi.repos.AsyncRepositoryFacade.await;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@DataJpaTest
+public class AsyncRepositoryFacadeTest {
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private AsyncRepositoryFacade repos;
+
+	@BeforeEach
+	public void setUp() {
+		repos = new AsyncRepositoryFacade(customerRepo, orderRepo, productRepo, transactionManager, 2, false);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repos.shutdown();
+	}
+
+	@Test
+	@DisplayName("Reads of the three repositories run at the same time")
+	public void readsRunConcurrently() {
+		CountDownLatch started = new CountDownLatch(3);
+
+		CompletableFuture<Long> customers = repos.customers(repo -> awaitOthers(started, repo.count()));
+		CompletableFuture<Long> orders = repos.orders(repo -> awaitOthers(started, repo.count()));
+		CompletableFuture<Long> products = repos.products(repo -> awaitOthers(started, repo.count()));
+
+		assertEquals(customerRepo.count(), await(customers));
+		assertEquals(orderRepo.count(), await(orders));
+		assertEquals(productRepo.count(), await(products));
+	}
+
+	@Test
+	@DisplayName("A repository never runs more queries at once than its connection budget")
+	public void budgetPerRepository() {
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+
+		List<CompletableFuture<Long>> counts = IntStream.range(0, 6)
+				.mapToObj(i -> repos.orders(repo -> {
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					sleep(50);
+					running.decrementAndGet();
+					return repo.count();
+				}))
+				.collect(Collectors.toList());
+		counts.forEach(AsyncRepositoryFacade::await);
+
+		assertEquals(2, maxRunning.get());
+	}
+
+	@Test
+	@DisplayName("Queries queued for a busy repository do not hold up the others")
+	public void noHeadOfLineBlocking() {
+		CountDownLatch release = new CountDownLatch(1);
+		List<CompletableFuture<Long>> blocked = IntStream.range(0, 6)
+				.mapToObj(i -> repos.orders(repo -> awaitRelease(release, repo.count())))
+				.collect(Collectors.toList());
+		try {
+			assertEquals(productRepo.count(), repos.products(ProductRepo::count).orTimeout(5, TimeUnit.SECONDS).join());
+		} finally {
+			release.countDown();
+		}
+		blocked.forEach(AsyncRepositoryFacade::await);
+	}
+
+	@Test
+	@DisplayName("Queries can read lazy associations, failures are rethrown unwrapped")
+	public void transactionsAndFailures() {
+		int products = await(repos.orders(repo -> repo.findById(1L).get().getProducts().size()));
+
+		assertTrue(products > 0);
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> await(repos.customers(repo -> repo.findById(null))));
+	}
+
+	private static <T> T awaitOthers(CountDownLatch started, T result) {
+		started.countDown();
+		try {
+			assertTrue(started.await(5, TimeUnit.SECONDS), "reads did not overlap");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return result;
+	}
+
+	private static <T> T awaitRelease(CountDownLatch release, T result) {
+		try {
+			release.await(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return result;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
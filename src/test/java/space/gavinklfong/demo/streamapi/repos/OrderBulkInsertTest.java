@@ -0,0 +1,120 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+@DataJpaTest
+public class OrderBulkInsertTest {
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	@DisplayName("Orders and their product links are inserted in JDBC batches")
+	public void insertAllBatchesInserts() {
+		Customer customer = customerRepo.findById(1L).get();
+		Set<Product> products = Set.of(productRepo.findById(1L).get(), productRepo.findById(2L).get());
+		List<Order> orders = IntStream.range(0, 120)
+				.mapToObj(i -> Order.builder()
+						.orderDate(LocalDate.of(2021, 5, 1))
+						.status("NEW")
+						.customer(customer)
+						.products(products)
+						.build())
+				.collect(Collectors.toList());
+		statistics.clear();
+
+		int inserted = orderRepo.insertAll(orders, 50);
+
+		assertEquals(120, inserted);
+		assertEquals(120, statistics.getEntityInsertCount());
+		// 120 order rows and 240 links in batches of 50, plus a few sequence calls
+		assertTrue(statistics.getPrepareStatementCount() < 20, "statements: " + statistics.getPrepareStatementCount());
+		assertTrue(orders.stream().allMatch(o -> o.getId() != null && o.getId() > 50));
+		assertEquals(170, orderRepo.count());
+		assertEquals(120, orderRepo.findByOrderDate(LocalDate.of(2021, 5, 1))
+				.stream()
+				.filter(o -> o.getProducts().size() == 2)
+				.count());
+	}
+
+	@Test
+	@DisplayName("Only the inserted orders are detached, the caller's entities stay managed")
+	public void insertAllDetachesOnlyOrders() {
+		Customer customer = customerRepo.findById(1L).get();
+		Product product = productRepo.findById(1L).get();
+		List<Order> orders = IntStream.range(0, 7)
+				.mapToObj(i -> Order.builder()
+						.orderDate(LocalDate.of(2021, 5, 2))
+						.status("NEW")
+						.customer(customer)
+						.products(Set.of(product))
+						.build())
+				.collect(Collectors.toList());
+
+		orderRepo.insertAll(orders, 3);
+
+		assertTrue(entityManager.contains(customer));
+		assertTrue(entityManager.contains(product));
+		assertTrue(orders.stream().noneMatch(entityManager::contains));
+
+		customer.setName("renamed by the caller");
+		entityManager.flush();
+		entityManager.clear();
+		assertEquals("renamed by the caller", customerRepo.findById(1L).get().getName());
+	}
+
+	@Test
+	@DisplayName("Generated ids continue after the rows of data.sql")
+	public void idsContinueAfterDataSql() {
+		Customer customer = customerRepo.save(Customer.builder().name("new customer").tier(1).build());
+		Product product = productRepo.save(Product.builder().name("new product").category("Books").price(1D).build());
+		entityManager.flush();
+
+		// other tests sharing the context may have taken the first ids already
+		assertTrue(customer.getId() > 10);
+		assertTrue(product.getId() > 30);
+	}
+
+}
@@ -0,0 +1,176 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Counts the statements issued by the exercises which walk order products,
+ * with plain {@code findAll()} and with the fetch plan variants.
+ */
+@DataJpaTest
+public class OrderFetchPlanTest {
+
+	private static final LocalDate FEB_01 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate FEB_28 = LocalDate.of(2021, 2, 28);
+	private static final LocalDate MAR_15 = LocalDate.of(2021, 3, 15);
+	private static final LocalDate APR_01 = LocalDate.of(2021, 4, 1);
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		entityManager.clear();
+		// customers are in the second-level cache, which other tests may have filled
+		entityManagerFactory.getCache().evictAll();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	@DisplayName("exercise 2 - findAll() loads the products of each order with its own select")
+	public void exercise2FindAll() {
+		List<Order> result = exercise2(orderRepo.findAll());
+
+		assertEquals(26, result.size());
+		assertEquals(1 + 50, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@DisplayName("exercise 2 - findAllWithProducts() issues a single select")
+	public void exercise2FetchPlan() {
+		List<Order> result = exercise2(orderRepo.findAllWithProducts());
+
+		assertEquals(26, result.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@DisplayName("exercise 4 - findAll() loads customers and products lazily")
+	public void exercise4FindAll() {
+		List<Product> result = orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> o.getOrderDate().compareTo(FEB_01) >= 0)
+				.filter(o -> o.getOrderDate().compareTo(APR_01) <= 0)
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+
+		// the orders, then each of the 10 customers, then the products of the 8 orders left
+		assertEquals(19, result.size());
+		assertEquals(1 + 10 + 8, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@DisplayName("exercise 4 - findByCustomerTierAndOrderDateBetweenWithProducts() issues a single select")
+	public void exercise4FetchPlan() {
+		List<Product> result = orderRepo.findByCustomerTierAndOrderDateBetweenWithProducts(2, FEB_01, APR_01)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+
+		assertEquals(19, result.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@DisplayName("exercise 7 - findByOrderDateBetweenWithCustomerAndProducts() issues a single select")
+	public void exercise7FetchPlan() {
+		List<Product> result = orderRepo.findByOrderDateBetweenWithCustomerAndProducts(MAR_15, MAR_15)
+				.stream()
+				.peek(o -> o.getCustomer().getName())
+				.flatMap(o -> o.getProducts().stream())
+				.distinct()
+				.collect(Collectors.toList());
+
+		assertEquals(7, result.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	@DisplayName("exercise 8 - findByOrderDateBetweenWithCustomerAndProducts() issues a single select")
+	public void exercise8FetchPlan() {
+		double result = orderRepo.findByOrderDateBetweenWithCustomerAndProducts(FEB_01, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+		assertEquals(1, statistics.getPrepareStatementCount());
+
+		double expected = orderRepo.findByOrderDateBetween(FEB_01, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+
+		assertEquals(expected, result, 0.001);
+	}
+
+	@Test
+	@DisplayName("exercise 7 - findByOrderDateBetweenWithCustomerAndProducts() keeps orders without a customer")
+	public void exercise7CustomerlessOrder() {
+		Product product = orderRepo.findByOrderDateBetween(MAR_15, MAR_15).get(0).getProducts().iterator().next();
+		Order order = orderRepo.save(Order.builder()
+				.orderDate(MAR_15)
+				.products(new HashSet<>(Set.of(product)))
+				.build());
+		entityManager.flush();
+		entityManager.clear();
+
+		List<Order> result = orderRepo.findByOrderDateBetweenWithCustomerAndProducts(MAR_15, MAR_15);
+
+		assertEquals(orderRepo.findByOrderDateBetween(MAR_15, MAR_15).size(), result.size());
+		Order customerless = result
+				.stream()
+				.filter(o -> o.getId().equals(order.getId()))
+				.findFirst()
+				.get();
+		assertNull(customerless.getCustomer());
+		assertEquals(Set.of(product.getId()), customerless.getProducts()
+				.stream()
+				.map(Product::getId)
+				.collect(Collectors.toSet()));
+	}
+
+	private static List<Order> exercise2(List<Order> orders) {
+		return orders
+				.stream()
+				.filter(o ->
+					o.getProducts()
+					.stream()
+					.anyMatch(p -> p.getCategory().equalsIgnoreCase("Baby"))
+				)
+				.collect(Collectors.toList());
+	}
+
+}
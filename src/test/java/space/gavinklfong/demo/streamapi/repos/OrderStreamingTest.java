@@ -0,0 +1,137 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.hibernate.collection.internal.AbstractPersistentCollection;
+import org.hibernate.engine.spi.EntityKey;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+@DataJpaTest
+public class OrderStreamingTest {
+
+	private static final LocalDate FEB_01 = LocalDate.of(2021, 2, 1);
+	private static final LocalDate FEB_28 = LocalDate.of(2021, 2, 28);
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Test
+	@DisplayName("Total lump of Feb 2021 orders computed from the order stream")
+	public void febTotalFromStream() {
+		double expected = orderRepo.findByOrderDateBetween(FEB_01, FEB_28)
+				.stream()
+				.flatMap(o -> o.getProducts().stream())
+				.mapToDouble(Product::getPrice)
+				.sum();
+		entityManager.clear();
+
+		double result;
+		try (Stream<Order> orders = orderRepo.streamByOrderDateBetween(FEB_01, FEB_28, 2)) {
+			result = orders
+					.flatMap(o -> o.getProducts().stream())
+					.mapToDouble(Product::getPrice)
+					.sum();
+		}
+
+		assertEquals(expected, result, 0.001);
+	}
+
+	@Test
+	@DisplayName("The streaming persistence context is cleared while the orders are streamed")
+	public void persistenceContextStaysBounded() {
+		AtomicInteger maxOrders = new AtomicInteger();
+
+		long count;
+		try (Stream<Order> orders = orderRepo.streamAll(5)) {
+			count = orders
+					.peek(o -> maxOrders.accumulateAndGet(managedOrders(streamingSession(o)), Math::max))
+					.count();
+		}
+
+		assertEquals(50, count);
+		assertTrue(maxOrders.get() <= 5);
+	}
+
+	@Test
+	@DisplayName("Streaming leaves the caller's persistence context alone and sees its pending changes")
+	public void callerEntitiesStayManaged() {
+		Order moved = orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getOrderDate().isAfter(FEB_28))
+				.findFirst()
+				.get();
+		moved.setOrderDate(FEB_01);
+
+		boolean found;
+		try (Stream<Order> orders = orderRepo.streamByOrderDateBetween(FEB_01, FEB_28, 2)) {
+			found = orders.anyMatch(o -> o.getId().equals(moved.getId()));
+		}
+
+		assertTrue(found);
+		assertTrue(entityManager.contains(moved));
+		assertEquals(FEB_01, moved.getOrderDate());
+	}
+
+	@Test
+	@DisplayName("Orders without a customer are streamed too")
+	public void customerlessOrderStreamed() {
+		Order order = orderRepo.save(Order.builder()
+				.orderDate(FEB_01)
+				.status("NEW")
+				.build());
+
+		boolean inAll;
+		try (Stream<Order> orders = orderRepo.streamAll(5)) {
+			inAll = orders.anyMatch(o -> o.getId().equals(order.getId()) && o.getCustomer() == null);
+		}
+		boolean inRange;
+		try (Stream<Order> orders = orderRepo.streamByOrderDateBetween(FEB_01, FEB_28, 2)) {
+			inRange = orders.anyMatch(o -> o.getId().equals(order.getId()));
+		}
+
+		assertTrue(inAll);
+		assertTrue(inRange);
+	}
+
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	@DisplayName("Streaming without a transaction is rejected")
+	public void streamRequiresTransaction() {
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> orderRepo.streamAll());
+	}
+
+	private static Session streamingSession(Order order) {
+		return (Session) ((AbstractPersistentCollection) order.getProducts()).getSession();
+	}
+
+	private static int managedOrders(Session session) {
+		Set<?> keys = session.getStatistics().getEntityKeys();
+		return (int) keys
+				.stream()
+				.filter(key -> ((EntityKey) key).getEntityName().equals(Order.class.getName()))
+				.count();
+	}
+
+}
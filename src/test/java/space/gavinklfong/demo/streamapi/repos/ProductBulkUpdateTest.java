@@ -0,0 +1,117 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import space.gavinklfong.demo.streamapi.analytics.OrderAggregates;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+public class ProductBulkUpdateTest {
+
+	// a category of its own, the context and its database are shared with other tests
+	private static final String CATEGORY = "Bulk update test";
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private List<Product> products;
+
+	@BeforeEach
+	public void setUp() {
+		products = List.of(
+				productRepo.save(Product.builder().name("a").category(CATEGORY).price(12.66).build()),
+				productRepo.save(Product.builder().name("b").category(CATEGORY).price(100.00).build()),
+				productRepo.save(Product.builder().name("c").category(CATEGORY).price(0.25).build()));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		productRepo.deleteAll(products);
+	}
+
+	@Test
+	@DisplayName("Discount updates the category in one statement and keeps caches and aggregates consistent")
+	public void applyDiscount() {
+		Product cached = products.get(0);
+		productRepo.findById(cached.getId());
+		assertTrue(entityManagerFactory.getCache().contains(Product.class, cached.getId()));
+		assertEquals(3, productRepo.findByCategory(CATEGORY).size());
+
+		int updated = productRepo.applyDiscount(CATEGORY, 10);
+
+		assertEquals(3, updated);
+		assertFalse(entityManagerFactory.getCache().contains(Product.class, cached.getId()));
+		assertEquals(List.of(11.39, 90.0, 0.22), productRepo.findByCategory(CATEGORY)
+				.stream()
+				.sorted((a, b) -> a.getId().compareTo(b.getId()))
+				.map(Product::getPrice)
+				.collect(Collectors.toList()));
+		assertEquals(90.0, aggregates.categoryStatistics(CATEGORY).getMax());
+		assertEquals(101.61, aggregates.categoryStatistics(CATEGORY).getSum(), 0.001);
+		assertEquals(Optional.of(products.get(1).getId()), aggregates.mostExpensiveProduct(CATEGORY));
+	}
+
+	@Test
+	@DisplayName("Only the managed products of the category are detached")
+	public void detachesCategoryOnly() {
+		Product other = productRepo.save(Product.builder().name("d").category(CATEGORY + " other").price(1.00).build());
+		try {
+			transactionTemplate.executeWithoutResult(tx -> {
+				EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+				Product product = productRepo.findById(products.get(0).getId()).orElseThrow();
+				Product unchanged = productRepo.findById(other.getId()).orElseThrow();
+
+				productRepo.applyDiscount(CATEGORY, 10);
+
+				assertFalse(entityManager.contains(product));
+				assertTrue(entityManager.contains(unchanged));
+				assertEquals(11.39, productRepo.findById(product.getId()).orElseThrow().getPrice());
+			});
+		} finally {
+			productRepo.delete(other);
+		}
+	}
+
+	@Test
+	@DisplayName("Rolled back updates are not applied to the aggregates")
+	public void rolledBack() {
+		transactionTemplate.executeWithoutResult(tx -> {
+			assertEquals(3, productRepo.applyDiscount(CATEGORY, 50));
+			tx.setRollbackOnly();
+		});
+
+		assertEquals(112.91, aggregates.categoryStatistics(CATEGORY).getSum(), 0.001);
+		assertEquals(0, productRepo.applyDiscount("No such category", 10));
+		assertThrows(InvalidDataAccessApiUsageException.class, () -> productRepo.applyDiscount(CATEGORY, 110));
+	}
+
+}
@@ -0,0 +1,123 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * The projections return what the exercises compute from the entities, with
+ * a single select and without loading any entity.
+ */
+@DataJpaTest
+public class ProjectionQueryTest {
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		entityManager.clear();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@Test
+	@DisplayName("Product summaries have the category, name and price of the products")
+	public void productSummaries() {
+		Set<String> expected = productRepo.findByCategory("Books")
+				.stream()
+				.map(p -> p.getCategory() + "/" + p.getName() + "/" + p.getPrice())
+				.collect(Collectors.toSet());
+		entityManager.clear();
+		statistics.clear();
+
+		List<ProductSummary> result = productRepo.findProjectedByCategory("Books");
+
+		assertFalse(result.isEmpty());
+		assertEquals(expected, result.stream()
+				.map(p -> p.getCategory() + "/" + p.getName() + "/" + p.getPrice())
+				.collect(Collectors.toSet()));
+		assertEquals(productRepo.count(), productRepo.findAllProjectedBy().size());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	@DisplayName("Customer and order ids are read from the order rows alone")
+	public void customerOrderIds() {
+		Map<Long, Long> expected = orderRepo.findAll()
+				.stream()
+				.collect(Collectors.toMap(Order::getId, o -> o.getCustomer().getId()));
+		entityManager.clear();
+		statistics.clear();
+
+		List<CustomerOrderId> result = orderRepo.findAllCustomerOrderIds();
+
+		assertEquals(expected, result.stream()
+				.collect(Collectors.toMap(CustomerOrderId::getOrderId, CustomerOrderId::getCustomerId)));
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+
+	@Test
+	@DisplayName("Order totals are summed by the database")
+	public void orderTotals() {
+		LocalDate from = LocalDate.of(2021, 2, 1);
+		LocalDate to = LocalDate.of(2021, 2, 28);
+		List<Order> orders = orderRepo.findAllWithProducts();
+		Map<Long, Double> expected = orders.stream()
+				.collect(Collectors.toMap(Order::getId, o -> o.getProducts()
+						.stream()
+						.mapToDouble(Product::getPrice)
+						.sum()));
+		entityManager.clear();
+		statistics.clear();
+
+		Map<Long, Double> result = orderRepo.findAllOrderTotals()
+				.stream()
+				.collect(Collectors.toMap(OrderTotal::getOrderId, OrderTotal::getTotal));
+
+		assertEquals(expected.keySet(), result.keySet());
+		expected.forEach((id, total) -> assertEquals(total, result.get(id), 0.001));
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+
+		Set<Long> february = orders.stream()
+				.filter(o -> !o.getOrderDate().isBefore(from) && !o.getOrderDate().isAfter(to))
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+		List<OrderTotal> februaryTotals = orderRepo.findOrderTotalsByOrderDateBetween(from, to);
+		assertFalse(februaryTotals.isEmpty());
+		assertEquals(february, februaryTotals.stream().map(OrderTotal::getOrderId).collect(Collectors.toSet()));
+		februaryTotals.forEach(t -> assertEquals(expected.get(t.getOrderId()), t.getTotal(), 0.001));
+	}
+
+}
@@ -0,0 +1,151 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import space.gavinklfong.demo.streamapi.collectors.TopK;
+import space.gavinklfong.demo.streamapi.models.Customer;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+
+@DataJpaTest
+public class RepositoryQueryTest {
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Test
+	@DisplayName("Products by category and price are filtered in the database")
+	public void productsByCategoryAndPrice() {
+		Set<Long> expected = productRepo.findAll()
+				.stream()
+				.filter(p -> p.getCategory().equals("Books"))
+				.filter(p -> p.getPrice() > 100)
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+
+		Set<Long> result = productRepo.findByCategoryAndPriceGreaterThan("Books", 100D)
+				.stream()
+				.map(Product::getId)
+				.collect(Collectors.toSet());
+
+		assertFalse(result.isEmpty());
+		assertEquals(expected, result);
+	}
+
+	@Test
+	@DisplayName("Orders by customer tier and order date range are filtered in the database")
+	public void ordersByTierAndDateRange() {
+		LocalDate from = LocalDate.of(2021, 2, 1);
+		LocalDate to = LocalDate.of(2021, 4, 1);
+		Set<Long> expected = orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getCustomer().getTier() == 2)
+				.filter(o -> !o.getOrderDate().isBefore(from) && !o.getOrderDate().isAfter(to))
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+
+		Set<Long> result = orderRepo.findByCustomerTierAndOrderDateBetween(2, from, to)
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+
+		assertFalse(result.isEmpty());
+		assertEquals(expected, result);
+	}
+
+	@Test
+	@DisplayName("Orders by order date are filtered in the database")
+	public void ordersByOrderDate() {
+		LocalDate orderDate = LocalDate.of(2021, 3, 15);
+		Set<Long> expected = orderRepo.findAll()
+				.stream()
+				.filter(o -> o.getOrderDate().isEqual(orderDate))
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+
+		Set<Long> result = orderRepo.findByOrderDate(orderDate)
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toSet());
+
+		assertEquals(Set.of(13L, 32L, 35L), result);
+		assertEquals(expected, result);
+	}
+
+	@Test
+	@DisplayName("Customers by tier are filtered in the database")
+	public void customersByTier() {
+		Set<Long> result = customerRepo.findByTier(2)
+				.stream()
+				.map(Customer::getId)
+				.collect(Collectors.toSet());
+
+		assertEquals(Set.of(4L, 6L, 8L), result);
+	}
+
+	@Test
+	@DisplayName("Most recent orders are limited in the database")
+	public void mostRecentOrders() {
+		List<Long> expected = orderRepo.findAll()
+				.stream()
+				.sorted(Comparator.comparing(Order::getOrderDate).reversed())
+				.limit(3)
+				.map(Order::getId)
+				.collect(Collectors.toList());
+
+		List<Long> topK = orderRepo.findAll()
+				.stream()
+				.collect(TopK.greatest(3, Comparator.comparing(Order::getOrderDate)))
+				.stream()
+				.map(Order::getId)
+				.collect(Collectors.toList());
+
+		assertEquals(expected, topK);
+		assertEquals(expected, ids(orderRepo.findTop3ByOrderByOrderDateDescIdAsc()));
+		assertEquals(expected, ids(orderRepo.findByOrderByOrderDateDescIdAsc(PageRequest.of(0, 3))));
+	}
+
+	@Test
+	@DisplayName("Cheapest products of a category are limited in the database")
+	public void cheapestProducts() {
+		List<Long> expected = productRepo.findAll()
+				.stream()
+				.filter(p -> p.getCategory().equals("Books"))
+				.sorted(Comparator.comparing(Product::getPrice))
+				.limit(3)
+				.map(Product::getId)
+				.collect(Collectors.toList());
+
+		List<Long> result = productRepo.findByCategoryOrderByPriceAscIdAsc("Books", PageRequest.of(0, 3))
+				.stream()
+				.map(Product::getId)
+				.collect(Collectors.toList());
+
+		assertEquals(3, result.size());
+		assertEquals(expected, result);
+	}
+
+	private static List<Long> ids(List<Order> orders) {
+		return orders.stream().map(Order::getId).collect(Collectors.toList());
+	}
+
+}
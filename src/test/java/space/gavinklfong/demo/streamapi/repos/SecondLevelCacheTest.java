@@ -0,0 +1,87 @@
+package space.gavinklfong.demo.streamapi.repos;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import space.gavinklfong.demo.streamapi.models.Product;
+
+/**
+ * Runs without a test transaction: READ_WRITE entries only become visible to
+ * sessions started after the one that cached them.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+	@Autowired
+	private CustomerRepo customerRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	public void setUp() {
+		entityManagerFactory.getCache().evictAll();
+		entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	@DisplayName("Products are served from the second-level cache once loaded")
+	public void productsAreCached() {
+		productRepo.findById(7L);
+		long statements = statistics.getPrepareStatementCount();
+
+		Product product = productRepo.findById(7L).get();
+
+		assertEquals("Books", product.getCategory());
+		assertEquals(statements, statistics.getPrepareStatementCount());
+		assertEquals(1, statistics.getSecondLevelCacheHitCount());
+	}
+
+	@Test
+	@DisplayName("Repeated filtered queries are served from the query cache")
+	public void filteredQueriesAreCached() {
+		int books = productRepo.findByCategoryAndPriceGreaterThan("Books", 100D).size();
+		customerRepo.findByTier(2);
+		long statements = statistics.getPrepareStatementCount();
+
+		assertEquals(books, productRepo.findByCategoryAndPriceGreaterThan("Books", 100D).size());
+		assertEquals(3, customerRepo.findByTier(2).size());
+
+		assertEquals(statements, statistics.getPrepareStatementCount());
+		assertEquals(2, statistics.getQueryCacheHitCount());
+	}
+
+	@Test
+	@DisplayName("Writes invalidate the cached query results")
+	public void writesInvalidateQueryResults() {
+		int books = productRepo.findByCategory("Books").size();
+
+		Product product = productRepo.save(Product.builder().name("new book").category("Books").price(10D).build());
+		try {
+			assertEquals(books + 1, productRepo.findByCategory("Books").size());
+			assertEquals(2, statistics.getQueryCacheMissCount());
+		} finally {
+			productRepo.delete(product);
+		}
+	}
+
+}
@@ -0,0 +1,202 @@
+package space.gavinklfong.demo.streamapi.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import space.gavinklfong.demo.streamapi.analytics.OrderAggregates;
+import space.gavinklfong.demo.streamapi.models.Order;
+import space.gavinklfong.demo.streamapi.models.Product;
+import space.gavinklfong.demo.streamapi.repos.OrderRepo;
+import space.gavinklfong.demo.streamapi.repos.ProductRepo;
+
+/**
+ * Runs on a database of its own, the mock web environment needs a context of
+ * its own and data.sql can't be loaded twice into the shared testdb.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase
+public class AnalyticsControllerTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private OrderAggregates aggregates;
+
+	@Autowired
+	private AnalyticsController controller;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Test
+	@DisplayName("Following the cursors returns every product of the category once, by price")
+	public void productPages() throws Exception {
+		List<Long> expected = productRepo.findByCategory("Books")
+				.stream()
+				.sorted(Comparator.comparing(Product::getPrice).thenComparing(Product::getId))
+				.map(Product::getId)
+				.collect(Collectors.toList());
+
+		List<Long> ids = new ArrayList<>();
+		String after = null;
+		do {
+			JsonNode page = json(mvc.perform(get("/api/products")
+					.param("category", "Books")
+					.param("limit", "2")
+					.param("after", after))
+					.andExpect(status().isOk())
+					.andReturn());
+			page.get("items").forEach(item -> ids.add(item.get("id").asLong()));
+			after = page.get("next").isNull() ? null : page.get("next").asText();
+		} while (after != null);
+
+		assertEquals(expected, ids);
+	}
+
+	@Test
+	@DisplayName("Orders are streamed as NDJSON, one order per line by date")
+	public void streamOrders() throws Exception {
+		LocalDate from = LocalDate.of(2021, 2, 1);
+		LocalDate to = LocalDate.of(2021, 4, 1);
+		List<Long> expected = orderRepo.findByOrderDateBetween(from, to)
+				.stream()
+				.sorted(Comparator.comparing(Order::getOrderDate).thenComparing(Order::getId))
+				.map(Order::getId)
+				.collect(Collectors.toList());
+
+		MvcResult started = mvc.perform(get("/api/orders")
+				.accept(MediaType.APPLICATION_NDJSON_VALUE)
+				.param("from", from.toString())
+				.param("to", to.toString()))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String body = mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+
+		List<Long> ids = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			JsonNode order = objectMapper.readTree(line);
+			ids.add(order.get("id").asLong());
+			assertEquals(aggregates.orderTotal(order.get("id").asLong()).getAsDouble(), order.get("total").asDouble(), 0.001);
+		}
+		assertEquals(expected, ids);
+		assertEquals(expected.size(), Arrays.stream(body.split("\n")).count());
+	}
+
+	@Test
+	@DisplayName("Streamed pages don't stay in a persistence context bound to the request")
+	public void streamingClearsPersistenceContext() {
+		// a transaction binds the entity manager to the thread, as open-in-view does for the streaming thread
+		int managed = transactionTemplate.execute(tx -> {
+			try {
+				controller.streamOrders(LocalDate.of(2021, 1, 1), LocalDate.of(2021, 12, 31), null)
+						.writeTo(new ByteArrayOutputStream());
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return entityManager.unwrap(Session.class).getStatistics().getEntityCount();
+		});
+
+		assertEquals(0, managed);
+	}
+
+	@Test
+	@DisplayName("Monthly revenue and category maxima come from the aggregates")
+	public void aggregates() throws Exception {
+		mvc.perform(get("/api/revenue/monthly").param("from", "2021-02").param("to", "2021-03"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].month").value("2021-02"))
+				.andExpect(jsonPath("$[0].total").value(aggregates.totalPrice(YearMonth.of(2021, 2))));
+
+		JsonNode maxima = json(mvc.perform(get("/api/categories/maximum").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn());
+		maxima.forEach(maximum -> assertEquals(
+				aggregates.mostExpensiveProduct(maximum.get("category").asText()).get(),
+				maximum.get("product").get("id").asLong()));
+	}
+
+	@Test
+	@DisplayName("The summary combines reads of the three repositories")
+	public void summary() throws Exception {
+		mvc.perform(get("/api/summary"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.customers").value(10))
+				.andExpect(jsonPath("$.orders").value(orderRepo.count()))
+				.andExpect(jsonPath("$.products").value(productRepo.count()))
+				.andExpect(jsonPath("$.mostRecentOrders.length()").value(3))
+				.andExpect(jsonPath("$.cheapestBooks[0].category").value("Books"));
+	}
+
+	@Test
+	@DisplayName("Invalid cursors, limits and month ranges are rejected")
+	public void badRequests() throws Exception {
+		mvc.perform(get("/api/products").param("category", "Books").param("after", "cheap"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/orders").param("from", "2021-02-01").param("to", "2021-03-01").param("limit", "0"))
+				.andExpect(status().isBadRequest());
+		mvc.perform(get("/api/revenue/monthly").param("from", "2021-03").param("to", "2021-02"))
+				.andExpect(status().isBadRequest());
+		JsonNode last = json(mvc.perform(get("/api/products").param("category", "No such category"))
+				.andExpect(status().isOk())
+				.andReturn());
+		assertEquals(0, last.get("items").size());
+		assertNull(last.get("next").textValue());
+	}
+
+	private JsonNode json(MvcResult result) throws Exception {
+		return objectMapper.readTree(result.getResponse().getContentAsString());
+	}
+
+}